@@ -0,0 +1,64 @@
+package simulation;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class AgentMoveBenchmark {
+    private static final int WIDTH = 1000, HEIGHT = 500;
+
+    @Param({"RESTING", "SEARCHING", "COLLECTING", "RETURNING", "DEPOSITING"})
+    public Agent.State state;
+
+    @Param({"1000"})
+    public int population;
+
+    @Param({"10", "1000"})
+    public int foodCount;
+
+    private Agent agent;
+    private AgentPopulation previous;
+    private AgentPopulation next;
+    private SpatialGrid grid;
+    private List<FoodSource> foodSources;
+    private FoodIndex foodIndex;
+
+    @Setup
+    public void setUp() {
+        SimulationEngine engine = new SimulationEngine(WIDTH, HEIGHT, new Hive(475, 250, 100), 1L);
+        engine.setPopulation(population);
+        engine.setFoodSources(foodCount);
+
+        agent = engine.getAgent();
+        foodSources = engine.getFoodSources();
+        foodIndex = engine.getFoodIndex();
+        previous = engine.getAgents();
+        for (int i = 0; i < previous.size(); i++) {
+            previous.state[i] = (byte) state.ordinal();
+            previous.restingTimer[i] = Integer.MAX_VALUE / 2;
+            previous.collectionTimer[i] = Integer.MAX_VALUE / 2;
+            previous.depositTimer[i] = Integer.MAX_VALUE / 2;
+            previous.searchTimer[i] = Integer.MAX_VALUE / 2;
+        }
+
+        next = new AgentPopulation();
+        next.resize(previous.size());
+        grid = new SpatialGrid(30);
+        grid.rebuild(previous, WIDTH, HEIGHT);
+    }
+
+    @Benchmark
+    public AgentPopulation move() {
+        for (int i = 0; i < previous.size(); i++) {
+            agent.move(previous, next, i, WIDTH, HEIGHT, grid, foodSources, foodIndex);
+        }
+        return next;
+    }
+}
@@ -0,0 +1,55 @@
+package simulation;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class AvoidCollisionBenchmark {
+    private static final int WIDTH = 1000, HEIGHT = 500;
+
+    @Param({"1000", "10000", "50000"})
+    public int population;
+
+    private Agent agent;
+    private AgentPopulation previous;
+    private AgentPopulation next;
+    private SpatialGrid grid;
+
+    @Setup
+    public void setUp() {
+        SimulationEngine engine = new SimulationEngine(WIDTH, HEIGHT, new Hive(475, 250, 100), 1L);
+        engine.setPopulation(population);
+        agent = engine.getAgent();
+        previous = engine.getAgents();
+
+        SplittableRandom random = new SplittableRandom(1L);
+        for (int i = 0; i < previous.size(); i++) {
+            previous.state[i] = Agent.SEARCHING;
+            previous.x[i] = random.nextInt(WIDTH);
+            previous.y[i] = random.nextInt(HEIGHT);
+        }
+
+        next = new AgentPopulation();
+        next.resize(previous.size());
+        for (int i = 0; i < previous.size(); i++) {
+            next.copyAgent(previous, i);
+        }
+        grid = new SpatialGrid(30);
+        grid.rebuild(previous, WIDTH, HEIGHT);
+    }
+
+    @Benchmark
+    public AgentPopulation avoidCollision() {
+        for (int i = 0; i < previous.size(); i++) {
+            agent.avoidCollision(previous, next, i, grid);
+        }
+        return next;
+    }
+}
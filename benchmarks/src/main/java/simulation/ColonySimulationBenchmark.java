@@ -0,0 +1,49 @@
+package simulation;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ColonySimulationBenchmark {
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    @Param({"16"})
+    public int regions;
+
+    @Param({"8"})
+    public int colonies;
+
+    @Param({"5000"})
+    public int beesPerColony;
+
+    private ColonySimulation simulation;
+
+    @Setup
+    public void setUp() {
+        int worldWidth = 4000, worldHeight = 2000;
+        simulation = new ColonySimulation(worldWidth, worldHeight,
+                ColonySimulation.spreadHives(colonies, worldWidth, worldHeight, 60), regions, 1L);
+        simulation.setFoodSources(200);
+        simulation.setPopulation(beesPerColony);
+        simulation.setParallelism(parallelism);
+        simulation.run(200);
+    }
+
+    @TearDown
+    public void tearDown() {
+        simulation.setParallelism(1);
+    }
+
+    @Benchmark
+    public ColonySimulation tick() {
+        simulation.tick();
+        return simulation;
+    }
+}
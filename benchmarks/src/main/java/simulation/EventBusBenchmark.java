@@ -0,0 +1,37 @@
+package simulation;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class EventBusBenchmark {
+    @Param({"false", "true"})
+    public boolean subscribed;
+
+    @Param({"1000"})
+    public int population;
+
+    private SimulationEngine engine;
+
+    @Setup
+    public void setUp() {
+        engine = new SimulationEngine(1000, 500, new Hive(475, 250, 100), 1L);
+        if (subscribed) {
+            engine.getEvents().addListener(new SimulationEventListener() {});
+        }
+        engine.setPopulation(population);
+        engine.setFoodSources(10);
+    }
+
+    @Benchmark
+    public long tick() {
+        engine.tick();
+        return engine.getTickCount();
+    }
+}
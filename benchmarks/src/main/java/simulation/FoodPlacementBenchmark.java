@@ -0,0 +1,33 @@
+package simulation;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class FoodPlacementBenchmark {
+    private static final double AREA_PER_SOURCE = 6000;
+
+    @Param({"10", "100", "300", "100000"})
+    public int count;
+
+    private SimulationEngine engine;
+
+    @Setup
+    public void setUp() {
+        int width = Math.max(1000, (int) Math.sqrt(2 * count * AREA_PER_SOURCE));
+        engine = new SimulationEngine(width, width / 2, new Hive(width / 2 - 25, width / 4, 100), 1L);
+    }
+
+    @Benchmark
+    public List<FoodSource> setFoodSources() {
+        engine.setFoodSources(count);
+        return engine.getFoodSources();
+    }
+}
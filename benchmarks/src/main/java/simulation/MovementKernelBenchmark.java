@@ -0,0 +1,44 @@
+package simulation;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "--add-modules=jdk.incubator.vector"})
+public class MovementKernelBenchmark {
+    @Param({"agent", "scalar", "vector"})
+    public String kernel;
+
+    @Param({"20000"})
+    public int population;
+
+    @Param({"1000", "4000"})
+    public int worldWidth;
+
+    private SimulationEngine engine;
+
+    @Setup
+    public void setUp() {
+        int worldHeight = worldWidth / 2;
+        engine = new SimulationEngine(worldWidth, worldHeight, new Hive(worldWidth / 2, worldHeight / 2, 100), 1L);
+        switch (kernel) {
+            case "scalar": engine.setMovementKernel(MovementKernel.scalar()); break;
+            case "vector": engine.setMovementKernel(MovementKernel.create()); break;
+            default: engine.setMovementKernel(null);
+        }
+        engine.setFoodSources(50);
+        engine.setPopulation(population);
+        engine.run(200);
+    }
+
+    @Benchmark
+    public SimulationEngine tick() {
+        engine.tick();
+        return engine;
+    }
+}
@@ -0,0 +1,42 @@
+package simulation;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PaintBenchmark {
+    private static final int WIDTH = 1000, HEIGHT = 500;
+
+    @Param({"1000", "10000"})
+    public int population;
+
+    private SimulationPanel panel;
+    private BufferedImage image;
+
+    @Setup
+    public void setUp() {
+        panel = new SimulationPanel(new Hive(475, 250, 100));
+        panel.setSize(WIDTH, HEIGHT);
+        panel.getEngine().setPopulation(population);
+        panel.getEngine().setFoodSources(10);
+        panel.getEngine().run(200);
+        panel.getLoop().publishSnapshot();
+        image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+    }
+
+    @Benchmark
+    public BufferedImage paintComponent() {
+        Graphics2D g = image.createGraphics();
+        panel.paintComponent(g);
+        g.dispose();
+        return image;
+    }
+}
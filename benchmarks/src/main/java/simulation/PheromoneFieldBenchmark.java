@@ -0,0 +1,49 @@
+package simulation;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "--add-modules=jdk.incubator.vector"})
+public class PheromoneFieldBenchmark {
+    @Param({"scalar", "vector"})
+    public String stencil;
+
+    @Param({"1024"})
+    public int size;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private PheromoneField field;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        field = new PheromoneField(size, size, 1, 0.1, 0.01, 2.0,
+                stencil.equals("vector") ? DiffusionStencil.create() : DiffusionStencil.scalar());
+        SplittableRandom random = new SplittableRandom(1L);
+        for (int i = 0; i < 10000; i++) {
+            field.deposit(random.nextInt(size), random.nextInt(size), 1f);
+        }
+        pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pool != null) pool.shutdown();
+    }
+
+    @Benchmark
+    public PheromoneField update() {
+        field.update(pool);
+        return field;
+    }
+}
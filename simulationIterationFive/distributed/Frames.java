@@ -0,0 +1,41 @@
+package distributed;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+// Length-prefixed messages over blocking channels.
+final class Frames {
+    static final int HEADER_BYTES = 4;
+
+    private Frames() {
+    }
+
+    static void write(SocketChannel channel, ByteBuffer payload) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(payload.remaining());
+        header.flip();
+        ByteBuffer[] frame = {header, payload};
+        while (payload.hasRemaining() || header.hasRemaining()) {
+            channel.write(frame);
+        }
+    }
+
+    static ByteBuffer read(SocketChannel channel) throws IOException {
+        ByteBuffer header = readFully(channel, ByteBuffer.allocate(HEADER_BYTES));
+        int length = header.getInt();
+        if (length < 0) {
+            throw new IOException("Corrupt frame length " + length);
+        }
+        return readFully(channel, ByteBuffer.allocate(length));
+    }
+
+    private static ByteBuffer readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Connection closed by " + channel.getRemoteAddress());
+            }
+        }
+        return buffer.flip();
+    }
+}
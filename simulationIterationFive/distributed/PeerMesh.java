@@ -0,0 +1,142 @@
+package distributed;
+
+import simulation.TileExchange;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+// A socket to every other tile. An exchange writes and reads all of them at
+// once through one selector, so large messages in both directions cannot
+// block each other. Each exchange reads exactly one frame per peer; a peer
+// that is already a phase ahead leaves its next frame in the socket.
+final class PeerMesh implements TileExchange, Closeable {
+    private final int tile;
+    private final SocketChannel[] peers;
+    private final SelectionKey[] keys;
+    private final Selector selector;
+    private final ByteBuffer[][] frames;
+    private final ByteBuffer[] headers;
+    private final ByteBuffer[] incoming;
+
+    private PeerMesh(int tile, SocketChannel[] peers) throws IOException {
+        this.tile = tile;
+        this.peers = peers;
+        int tiles = peers.length;
+        selector = Selector.open();
+        keys = new SelectionKey[tiles];
+        frames = new ByteBuffer[tiles][];
+        headers = new ByteBuffer[tiles];
+        incoming = new ByteBuffer[tiles];
+        for (int t = 0; t < tiles; t++) {
+            if (t == tile) continue;
+            peers[t].configureBlocking(false);
+            keys[t] = peers[t].register(selector, 0, t);
+            frames[t] = new ByteBuffer[] {ByteBuffer.allocate(Frames.HEADER_BYTES), null};
+            headers[t] = ByteBuffer.allocate(Frames.HEADER_BYTES);
+            incoming[t] = ByteBuffer.allocate(1024);
+        }
+    }
+
+    // Tile t connects to every lower numbered tile and accepts the rest, so
+    // each pair shares one connection. Every listener is bound before any
+    // tile learns the ports, so connecting never waits on an accept.
+    static PeerMesh connect(int tile, int[] ports, ServerSocketChannel listener) throws IOException {
+        SocketChannel[] peers = new SocketChannel[ports.length];
+        try {
+            for (int t = 0; t < tile; t++) {
+                peers[t] = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), ports[t]));
+                peers[t].socket().setTcpNoDelay(true);
+                Frames.write(peers[t], ByteBuffer.allocate(4).putInt(0, tile));
+            }
+            for (int accepted = tile + 1; accepted < ports.length; accepted++) {
+                SocketChannel peer = listener.accept();
+                peer.socket().setTcpNoDelay(true);
+                int t = Frames.read(peer).getInt();
+                if (t <= tile || t >= ports.length || peers[t] != null) {
+                    peer.close();
+                    throw new IOException("Unexpected connection from tile " + t);
+                }
+                peers[t] = peer;
+            }
+            return new PeerMesh(tile, peers);
+        } catch (IOException e) {
+            for (SocketChannel peer : peers) {
+                if (peer != null) peer.close();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public ByteBuffer[] exchange(ByteBuffer[] outgoing) throws IOException {
+        int pending = 0;
+        for (int t = 0; t < peers.length; t++) {
+            if (t == tile) continue;
+            ByteBuffer[] frame = frames[t];
+            frame[0].clear().putInt(outgoing[t].remaining()).flip();
+            frame[1] = outgoing[t];
+            headers[t].clear();
+            keys[t].interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            pending += 2;
+        }
+
+        while (pending > 0) {
+            selector.select();
+            for (SelectionKey key : selector.selectedKeys()) {
+                int t = (Integer) key.attachment();
+                if (key.isWritable()) {
+                    ByteBuffer[] frame = frames[t];
+                    peers[t].write(frame);
+                    if (!frame[0].hasRemaining() && !frame[1].hasRemaining()) {
+                        key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+                        pending--;
+                    }
+                }
+                if (key.isReadable() && read(t)) {
+                    key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+                    pending--;
+                }
+            }
+            selector.selectedKeys().clear();
+        }
+
+        ByteBuffer[] result = incoming.clone();
+        result[tile] = outgoing[tile];
+        return result;
+    }
+
+    // Returns true once the whole frame from tile t has arrived.
+    private boolean read(int t) throws IOException {
+        ByteBuffer header = headers[t];
+        if (header.hasRemaining()) {
+            if (peers[t].read(header) < 0) throw new EOFException("Tile " + t + " disconnected");
+            if (header.hasRemaining()) return false;
+
+            int length = header.getInt(0);
+            if (incoming[t].capacity() < length) incoming[t] = ByteBuffer.allocate(Math.max(length, 2 * incoming[t].capacity()));
+            incoming[t].clear().limit(length);
+        }
+        ByteBuffer body = incoming[t];
+        if (body.hasRemaining() && peers[t].read(body) < 0) throw new EOFException("Tile " + t + " disconnected");
+        if (body.hasRemaining()) return false;
+
+        body.flip();
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        selector.close();
+        for (SocketChannel peer : peers) {
+            if (peer != null) peer.close();
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package distributed;
+
+import simulation.ColonySimulation;
+import simulation.FoodSource;
+import simulation.Hive;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Runs a multi-colony world split into tiles, one worker process per tile.
+// The coordinator hands out the configuration, holds every tick until all
+// tiles have reported, and adds up the hives and food sources they own.
+public class TileCoordinator {
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: java -cp bee-simulation.jar distributed.TileCoordinator [options]",
+            "  --tiles 4                    --colonies 4",
+            "  --bees 2500                  (per colony)",
+            "  --food 40                    --hive-radius 40",
+            "  --width 2000                 --height 1000",
+            "  --ticks 3600                 --seed 1",
+            "  --report-every 600           (ticks between progress lines)",
+            "  --port 0                     port workers connect to on localhost",
+            "  --spawn true                 start the workers as child processes",
+            "  --verify false               compare with a single-process run");
+    private static final Set<String> OPTIONS = Set.of(
+            "tiles", "colonies", "bees", "food", "hive-radius", "width", "height", "ticks", "seed", "report-every",
+            "port", "spawn", "verify");
+    private static final int ACCEPT_POLL_MILLIS = 200;
+    private static final long SPAWNED_CONNECT_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private final Map<String, String> options = new HashMap<>();
+    private final int tiles, colonies, beesPerColony, foodCount, hiveRadius, width, height, reportEvery;
+    private final long ticks, seed;
+    private final ColonySimulation world;
+
+    TileCoordinator(String[] args) {
+        for (int i = 0; i < args.length; i += 2) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --option value but got: " + args[i]);
+            }
+            String name = args[i].substring(2);
+            if (!OPTIONS.contains(name)) {
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+            options.put(name, args[i + 1]);
+        }
+        tiles = integer("tiles", 4);
+        colonies = integer("colonies", 4);
+        beesPerColony = integer("bees", 2500);
+        foodCount = integer("food", 40);
+        hiveRadius = integer("hive-radius", 40);
+        width = integer("width", 2000);
+        height = integer("height", 1000);
+        reportEvery = integer("report-every", 600);
+        ticks = integer("ticks", 3600);
+        seed = Long.parseLong(options.getOrDefault("seed", "1"));
+        if (colonies < 1 || beesPerColony < 0 || ticks < 0 || reportEvery < 1) {
+            throw new IllegalArgumentException("--colonies and --report-every must be at least 1, "
+                    + "--bees and --ticks must not be negative");
+        }
+
+        // Checks the tiling and food placement before any worker starts.
+        world = new ColonySimulation(width, height, ColonySimulation.spreadHives(colonies, width, height, hiveRadius),
+                tiles, seed);
+        world.setFoodSources(foodCount);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 1 && (args[0].equals("--help") || args[0].equals("-h"))) {
+            System.out.println(USAGE);
+            return;
+        }
+
+        TileCoordinator coordinator;
+        int port;
+        try {
+            coordinator = new TileCoordinator(args);
+            port = coordinator.integer("port", 0);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+            return;
+        }
+
+        long checksum;
+        try (ServerSocketChannel listener = ServerSocketChannel.open()
+                .bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), coordinator.tiles)) {
+            port = ((InetSocketAddress) listener.getLocalAddress()).getPort();
+            List<Process> workers = new ArrayList<>();
+            try {
+                if (Boolean.parseBoolean(coordinator.options.getOrDefault("spawn", "true"))) {
+                    for (int t = 0; t < coordinator.tiles; t++) workers.add(spawnWorker(port));
+                } else {
+                    System.err.printf("Waiting for %d workers on port %d%n", coordinator.tiles, port);
+                }
+                checksum = coordinator.run(listener, workers);
+                for (Process worker : workers) worker.waitFor();
+            } finally {
+                for (Process worker : workers) worker.destroy();
+            }
+        }
+
+        if (Boolean.parseBoolean(coordinator.options.getOrDefault("verify", "false"))) {
+            long expected = coordinator.runInProcess();
+            if (expected != checksum) {
+                System.out.printf("Differs from the single-process run, checksum %016x%n", expected);
+                System.exit(1);
+            }
+            System.out.println("Matches the single-process run");
+        }
+    }
+
+    private static Process spawnWorker(int port) throws IOException {
+        String java = ProcessHandle.current().info().command()
+                .orElse(System.getProperty("java.home") + "/bin/java");
+        return new ProcessBuilder(java, "-Djava.awt.headless=true",
+                "-cp", System.getProperty("java.class.path"),
+                TileWorker.class.getName(), "--coordinator", String.valueOf(port))
+                .inheritIO()
+                .start();
+    }
+
+    // 'spawned' are the worker processes started for this run, if any.
+    long run(ServerSocketChannel listener, List<Process> spawned) throws IOException {
+        SocketChannel[] workers = new SocketChannel[tiles];
+        try {
+            int[] ports = new int[tiles];
+            long deadline = System.nanoTime() + SPAWNED_CONNECT_NANOS;
+            for (int t = 0; t < tiles; t++) {
+                workers[t] = accept(listener, spawned, deadline);
+                workers[t].socket().setTcpNoDelay(true);
+                ports[t] = Frames.read(workers[t]).getInt();
+            }
+            for (int t = 0; t < tiles; t++) {
+                ByteBuffer config = ByteBuffer.allocate(4 * (tiles + 8) + 8);
+                config.putInt(t).putInt(tiles);
+                for (int p : ports) config.putInt(p);
+                config.putInt(width).putInt(height).putInt(colonies).putInt(beesPerColony)
+                        .putInt(foodCount).putInt(hiveRadius).putLong(seed);
+                Frames.write(workers[t], config.flip());
+            }
+
+            for (long tick = 0; ; tick++) {
+                Totals totals = collect(workers, tick);
+                if (tick % reportEvery == 0 || tick == ticks) {
+                    System.out.printf("tick %d: %d bees, %d food stored, %d in flight, %d left%n", tick,
+                            totals.population, totals.stored(), totals.foodInFlight, totals.remaining());
+                }
+                byte command = tick == ticks ? TileWorker.STOP : TileWorker.CONTINUE;
+                for (SocketChannel worker : workers) Frames.write(worker, ByteBuffer.wrap(new byte[] {command}));
+                if (command == TileWorker.STOP) {
+                    totals.print(world.getHives(), world.getFoodSources());
+                    return totals.checksum(tick);
+                }
+            }
+        } finally {
+            for (SocketChannel worker : workers) {
+                if (worker != null) worker.close();
+            }
+        }
+    }
+
+    // Waits for the next worker, but gives up once a spawned worker has exited
+    // or they have all had a minute to connect. Workers started by hand are
+    // waited for indefinitely.
+    private static SocketChannel accept(ServerSocketChannel listener, List<Process> spawned, long deadline)
+            throws IOException {
+        listener.socket().setSoTimeout(ACCEPT_POLL_MILLIS);
+        while (true) {
+            try {
+                return listener.socket().accept().getChannel();
+            } catch (SocketTimeoutException e) {
+                for (Process worker : spawned) {
+                    if (!worker.isAlive()) {
+                        throw new IOException("A worker exited with status " + worker.exitValue()
+                                + " before connecting");
+                    }
+                }
+                if (!spawned.isEmpty() && System.nanoTime() - deadline > 0) {
+                    throw new IOException("Workers did not connect within "
+                            + TimeUnit.NANOSECONDS.toSeconds(SPAWNED_CONNECT_NANOS) + " seconds");
+                }
+            }
+        }
+    }
+
+    // Reading one report from every tile in turn is the tick barrier.
+    private Totals collect(SocketChannel[] workers, long tick) throws IOException {
+        Totals totals = new Totals();
+        for (int t = 0; t < tiles; t++) {
+            ByteBuffer report = Frames.read(workers[t]);
+            long reported = report.getLong();
+            if (reported != tick) {
+                throw new IOException("Tile " + t + " reported tick " + reported + " during tick " + tick);
+            }
+            totals.population += report.getInt();
+            totals.foodInFlight += report.getLong();
+            totals.beeChecksums[t] = report.getLong();
+            for (int c = 0; c < colonies; c++) totals.storedFood[c] += report.getInt();
+            for (int owned = report.getInt(); owned > 0; owned--) {
+                totals.foodQuantities[report.getInt()] = report.getInt();
+            }
+        }
+        return totals;
+    }
+
+    long runInProcess() {
+        ColonySimulation reference = new ColonySimulation(width, height,
+                ColonySimulation.spreadHives(colonies, width, height, hiveRadius), tiles, seed);
+        reference.setFoodSources(foodCount);
+        reference.setPopulation(beesPerColony);
+        reference.run(ticks);
+        return reference.checksum();
+    }
+
+    private int integer(String name, int defaultValue) {
+        String value = options.get(name);
+        if (value == null) return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " expects a whole number but got: " + value);
+        }
+    }
+
+    private class Totals {
+        int population;
+        long foodInFlight;
+        final long[] beeChecksums = new long[tiles];
+        final int[] storedFood = new int[colonies];
+        final int[] foodQuantities = new int[foodCount];
+
+        long stored() {
+            long stored = 0;
+            for (int food : storedFood) stored += food;
+            return stored;
+        }
+
+        long remaining() {
+            long remaining = 0;
+            for (int quantity : foodQuantities) remaining += quantity;
+            return remaining;
+        }
+
+        long checksum(long tick) {
+            return ColonySimulation.checksum(tick, beeChecksums, foodQuantities, storedFood);
+        }
+
+        void print(List<Hive> hives, List<FoodSource> foodSources) {
+            for (int c = 0; c < colonies; c++) {
+                Hive hive = hives.get(c);
+                System.out.printf("Hive %d at (%d, %d): %d stored%n", c + 1, hive.getX(), hive.getY(), storedFood[c]);
+            }
+            for (int f = 0; f < foodCount; f++) {
+                System.out.printf("%s at (%d, %d): %d left%n", foodSources.get(f).getLabel(),
+                        foodSources.get(f).getX(), foodSources.get(f).getY(), foodQuantities[f]);
+            }
+            System.out.printf("checksum %016x%n", checksum(ticks));
+        }
+    }
+}
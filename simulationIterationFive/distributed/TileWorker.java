@@ -0,0 +1,86 @@
+package distributed;
+
+import simulation.ColonySimulation;
+import simulation.FoodSource;
+import simulation.Hive;
+import simulation.Tile;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+
+// One tile of a distributed run. Started by TileCoordinator, or by hand with
+// the port the coordinator printed:
+//   java -cp bee-simulation.jar distributed.TileWorker --coordinator 7070
+public final class TileWorker {
+    static final byte STOP = 0, CONTINUE = 1;
+
+    private TileWorker() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2 || !args[0].equals("--coordinator")) {
+            System.err.println("Usage: java -cp bee-simulation.jar distributed.TileWorker --coordinator <port>");
+            System.exit(1);
+            return;
+        }
+        run(Integer.parseInt(args[1]));
+    }
+
+    static void run(int coordinatorPort) throws IOException {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        try (SocketChannel coordinator = SocketChannel.open(new InetSocketAddress(loopback, coordinatorPort));
+             ServerSocketChannel listener = ServerSocketChannel.open().bind(new InetSocketAddress(loopback, 0))) {
+            coordinator.socket().setTcpNoDelay(true);
+            int port = ((InetSocketAddress) listener.getLocalAddress()).getPort();
+            Frames.write(coordinator, ByteBuffer.allocate(4).putInt(0, port));
+
+            ByteBuffer config = Frames.read(coordinator);
+            int index = config.getInt(), tiles = config.getInt();
+            int[] ports = new int[tiles];
+            for (int t = 0; t < tiles; t++) ports[t] = config.getInt();
+            int width = config.getInt(), height = config.getInt();
+            int colonies = config.getInt(), beesPerColony = config.getInt();
+            int foodCount = config.getInt(), hiveRadius = config.getInt();
+            long seed = config.getLong();
+
+            List<Hive> hives = ColonySimulation.spreadHives(colonies, width, height, hiveRadius);
+            Tile tile = new Tile(index, tiles, width, height, hives, seed);
+            tile.setFoodSources(foodCount);
+            tile.setPopulation(beesPerColony);
+
+            try (PeerMesh mesh = PeerMesh.connect(index, ports, listener)) {
+                report(coordinator, tile);
+                while (Frames.read(coordinator).get() == CONTINUE) {
+                    tile.tick(mesh);
+                    report(coordinator, tile);
+                }
+            }
+        }
+    }
+
+    // Sent after every tick; waiting for the reply is the tick barrier.
+    private static void report(SocketChannel coordinator, Tile tile) throws IOException {
+        List<Hive> hives = tile.getHives();
+        List<FoodSource> foodSources = tile.getFoodSources();
+        ByteBuffer report = ByteBuffer.allocate(8 + 4 + 8 + 8 + 4 * hives.size() + 4 + 8 * foodSources.size());
+        report.putLong(tile.getTickCount()).putInt(tile.getPopulation())
+                .putLong(tile.getFoodInFlight()).putLong(tile.beeChecksum());
+        for (Hive hive : hives) report.putInt(hive.getStoredFood());
+
+        int countAt = report.position(), owned = 0;
+        report.putInt(0);
+        for (int f = 0; f < foodSources.size(); f++) {
+            if (tile.ownsFood(f)) {
+                report.putInt(f).putInt(foodSources.get(f).getQuantity());
+                owned++;
+            }
+        }
+        report.putInt(countAt, owned);
+        Frames.write(coordinator, report.flip());
+    }
+}
@@ -1,17 +1,36 @@
 package gui;
 
+import metrics.JmxExporter;
+import metrics.MetricsRegistry;
+import metrics.PrometheusServer;
 import simulation.SimulationPanel;
 import simulation.Hive;
+import simulation.FoodSource;
+import simulation.SimulationEngine;
+import simulation.SimulationEventListener;
+import simulation.SimulationListener;
+import simulation.SimulationLoop;
 import visualisation.FoodCollectionGraph;
 import visualisation.TotalFoodGraph;
 import visualisation.FoodDepletionGraph;
 
 import javax.swing.*;
 import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 public class BeeSimulationGUI {
+    private static final String METRICS_PORT_PROPERTY = "simulation.metrics.port";
+    private static final int[] WORLD_SCALES = {1, 4, 16, 64};
+    private static final String[] SPEED_LABELS = {"1x", "10x", "100x", "Max"};
+    private static final int[] SPEEDS = {
+        SimulationEngine.TICKS_PER_SECOND, 10 * SimulationEngine.TICKS_PER_SECOND,
+        100 * SimulationEngine.TICKS_PER_SECOND, SimulationLoop.UNLIMITED
+    };
+
     private SimulationPanel simulationPanel;
-    private Timer simulationTimer;
     private boolean isSimulationRunning = false;
     private boolean isPaused = false;
     private int timeElapsed = 0;
@@ -19,12 +38,13 @@ public class BeeSimulationGUI {
     private FoodCollectionGraph foodGraph;
     private JFrame graphFrame;
     private JSlider beeSlider;
-    private JSlider foodSlider;
+    private JSpinner foodSpinner;
     private JButton startButton;
     private JButton pauseButton;
     private JButton resetButton;
-    private TotalFoodGraph totalFoodGraph = new TotalFoodGraph();
+    private TotalFoodGraph totalFoodGraph;
     private FoodDepletionGraph foodDepletionGraph;
+    private JFileChooser checkpointChooser;
     
 
     public BeeSimulationGUI() {
@@ -35,11 +55,57 @@ public class BeeSimulationGUI {
         foodGraph = new FoodCollectionGraph();
         totalFoodGraph = new TotalFoodGraph();
         foodDepletionGraph = new FoodDepletionGraph();
-        hive = new Hive(475, 250, 100, foodDepletionGraph);
-        totalFoodGraph = new TotalFoodGraph();
-        hive.setGraphs(totalFoodGraph);
+        hive = createHive();
 
         simulationPanel = new SimulationPanel(hive);
+        simulationPanel.getEngine().addListener(new SimulationListener() {
+            @Override
+            public void foodSourcesPlaced(SimulationEngine engine, List<FoodSource> foodSources) {
+                List<Integer> initialQuantities = new ArrayList<>();
+                List<Color> foodColors = new ArrayList<>();
+                for (FoodSource food : foodSources) {
+                    initialQuantities.add(food.getQuantity());
+                    foodColors.add(food.getColor());
+                }
+                int sourceCount = foodSources.size();
+                SwingUtilities.invokeLater(() ->
+                        foodDepletionGraph.initializeFoodSources(sourceCount, initialQuantities, foodColors));
+            }
+        });
+        simulationPanel.getEngine().getEvents().addListener(new SimulationEventListener() {
+            @Override
+            public void foodDeposited(int seconds, int storedFood) {
+                SwingUtilities.invokeLater(() -> totalFoodGraph.updateGraph(seconds, storedFood));
+            }
+
+            @Override
+            public void secondElapsed(int seconds, int storedFood, int[] foodQuantities) {
+                List<Integer> quantities = new ArrayList<>(foodQuantities.length);
+                for (int quantity : foodQuantities) {
+                    quantities.add(quantity);
+                }
+
+                SwingUtilities.invokeLater(() -> {
+                    timeElapsed = seconds;
+                    foodGraph.updateGraph(timeElapsed, storedFood);
+                    foodDepletionGraph.updateGraph(seconds, quantities);
+                });
+            }
+
+            @Override
+            public int plottedSources() {
+                return FoodDepletionGraph.MAX_SERIES;
+            }
+
+            @Override
+            public void simulationReset() {
+                SwingUtilities.invokeLater(() -> {
+                    foodGraph.resetGraph();
+                    foodDepletionGraph.resetGraph();
+                    totalFoodGraph.resetGraph();
+                });
+            }
+        });
         frame.add(simulationPanel, BorderLayout.CENTER);
 
         JPanel controlPanel = new JPanel();
@@ -53,22 +119,29 @@ public class BeeSimulationGUI {
         beeSlider.setPaintLabels(true);
 
         JLabel foodLabel = new JLabel("Number of Food Sources:");
-        foodSlider = new JSlider(0, 10, 0);
-        foodSlider.setMajorTickSpacing(2);
-        foodSlider.setPaintTicks(true);
-        foodSlider.setPaintLabels(true);
+        foodSpinner = new JSpinner(new SpinnerNumberModel(0, 0, 100_000, 1));
 
         startButton = new JButton("Start Simulation");
         pauseButton = new JButton("Pause Simulation");
         resetButton = new JButton("Reset Simulation");
 
+        JLabel speedLabel = new JLabel("Speed:");
+        JComboBox<String> speedBox = new JComboBox<>(SPEED_LABELS);
+        speedBox.addActionListener(e -> simulationPanel.getLoop().setTicksPerSecond(SPEEDS[speedBox.getSelectedIndex()]));
+        JLabel measuredSpeed = new JLabel();
+        new Timer(500, e -> measuredSpeed.setText(String.format("(%.0f ticks/s)",
+                simulationPanel.getLoop().getMeasuredTicksPerSecond()))).start();
+
         controlPanel.add(beeLabel);
         controlPanel.add(beeSlider);
         controlPanel.add(foodLabel);
-        controlPanel.add(foodSlider);
+        controlPanel.add(foodSpinner);
         controlPanel.add(startButton);
         controlPanel.add(pauseButton);
         controlPanel.add(resetButton);
+        controlPanel.add(speedLabel);
+        controlPanel.add(speedBox);
+        controlPanel.add(measuredSpeed);
 
         frame.add(controlPanel, BorderLayout.SOUTH);
 
@@ -85,14 +158,65 @@ public class BeeSimulationGUI {
         openGraphs.addActionListener(e -> openGraphWindow());
         visualisationMenu.add(openGraphs);
         menuBar.add(visualisationMenu);
+
+        JMenu renderingMenu = new JMenu("Rendering");
+        JCheckBoxMenuItem activeRendering = new JCheckBoxMenuItem("Active Rendering");
+        activeRendering.addActionListener(e -> simulationPanel.setActiveRendering(activeRendering.isSelected()));
+        renderingMenu.add(activeRendering);
+        menuBar.add(renderingMenu);
+
+        JMenu checkpointMenu = new JMenu("Checkpoint");
+        JMenuItem saveCheckpoint = new JMenuItem("Save Checkpoint...");
+        JMenuItem loadCheckpoint = new JMenuItem("Load Checkpoint...");
+        saveCheckpoint.addActionListener(e -> saveCheckpoint(frame));
+        loadCheckpoint.addActionListener(e -> loadCheckpoint(frame));
+        checkpointMenu.add(saveCheckpoint);
+        checkpointMenu.add(loadCheckpoint);
+        checkpointMenu.addSeparator();
+        JCheckBoxMenuItem recordTrajectory = new JCheckBoxMenuItem("Record Trajectory...");
+        recordTrajectory.addActionListener(e -> recordTrajectory(frame, recordTrajectory));
+        checkpointMenu.add(recordTrajectory);
+        menuBar.add(checkpointMenu);
+
+        JMenu worldMenu = new JMenu("World");
+        for (int scale : WORLD_SCALES) {
+            int width = SimulationPanel.DEFAULT_WORLD_WIDTH * scale, height = SimulationPanel.DEFAULT_WORLD_HEIGHT * scale;
+            JMenuItem worldSize = new JMenuItem(width + " x " + height);
+            worldSize.addActionListener(e -> setWorldSize(width, height));
+            worldMenu.add(worldSize);
+        }
+        worldMenu.addSeparator();
+        JMenuItem fitWorld = new JMenuItem("Fit to Window");
+        fitWorld.addActionListener(e -> simulationPanel.fitWorldToView());
+        worldMenu.add(fitWorld);
+        menuBar.add(worldMenu);
         frame.setJMenuBar(menuBar);
     }
 
+    private Hive createHive() {
+        int width = simulationPanel == null ? SimulationPanel.DEFAULT_WORLD_WIDTH : simulationPanel.getWorldWidth();
+        int height = simulationPanel == null ? SimulationPanel.DEFAULT_WORLD_HEIGHT : simulationPanel.getWorldHeight();
+        return new Hive(width / 2, height / 2, 100);
+    }
+
+    private void setWorldSize(int width, int height) {
+        if (isSimulationRunning) {
+            JOptionPane.showMessageDialog(null,
+                "Reset the simulation before changing the world size.",
+                "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        simulationPanel.setWorldSize(width, height);
+        hive = createHive();
+        simulationPanel.setHive(hive);
+        simulationPanel.resetSimulation();
+    }
+
     private void startSimulation() {
     	if (isSimulationRunning && isPaused) {
     		 isPaused = false;
     		    
-    		    simulationTimer.start();
     		    simulationPanel.resumeSimulation(); 
 
     		    startButton.setEnabled(false);
@@ -103,7 +227,7 @@ public class BeeSimulationGUI {
         if (isSimulationRunning) return;
 
         int beeCount = beeSlider.getValue();
-        int foodCount = foodSlider.getValue();
+        int foodCount = (Integer) foodSpinner.getValue();
 
         if (beeCount == 0 || foodCount == 0) {
             JOptionPane.showMessageDialog(null,
@@ -120,16 +244,13 @@ public class BeeSimulationGUI {
             return;
         }
         
-        simulationTimer = new Timer(1000, e -> {
-            timeElapsed++;
-            hive.incrementTime();
-            foodGraph.updateGraph(timeElapsed, hive.getStoredFood());
-            hive.updateFoodGraph(simulationPanel.getFoodSources());
-        });
-        simulationTimer.start();
-        
+        try {
+            simulationPanel.setFoodSources(foodCount);
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(null, e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
         simulationPanel.setPopulation(beeCount);
-        simulationPanel.setFoodSources(foodCount);
         simulationPanel.startSimulation();
         hive.resetTime();
         isSimulationRunning = true;
@@ -142,44 +263,74 @@ public class BeeSimulationGUI {
     private void pauseSimulation() {
         isPaused = true;
         simulationPanel.pauseSimulation();
-        if (simulationTimer != null) {
-            simulationTimer.stop();
-        }
 
         startButton.setEnabled(true); 
         pauseButton.setEnabled(false);
     }
     
     private void resetSimulation() {
-        if (simulationTimer != null) {
-            simulationTimer.stop();
-        }
-
         isSimulationRunning = false;
         isPaused = false;
         timeElapsed = 0;
 
 
-        hive = new Hive(475, 250, 100, foodDepletionGraph);
+        hive = createHive();
         simulationPanel.setHive(hive);
-        foodDepletionGraph.resetGraph();
-        hive.setGraphs(totalFoodGraph); 
         hive.resetTime();
         hive.resetFood();  
 
 
-        totalFoodGraph.resetGraph();
-        
-
         simulationPanel.resetSimulation();
 
         beeSlider.setEnabled(true);
-        foodSlider.setEnabled(true);
+        foodSpinner.setEnabled(true);
         startButton.setEnabled(true);
         pauseButton.setEnabled(false);
         resetButton.setEnabled(false);
     }
     
+    private void saveCheckpoint(JFrame frame) {
+        if (checkpointChooser == null) checkpointChooser = new JFileChooser();
+        if (checkpointChooser.showSaveDialog(frame) != JFileChooser.APPROVE_OPTION) return;
+
+        File file = checkpointChooser.getSelectedFile();
+        simulationPanel.saveCheckpoint(file.toPath());
+    }
+
+    private void loadCheckpoint(JFrame frame) {
+        if (checkpointChooser == null) checkpointChooser = new JFileChooser();
+        if (checkpointChooser.showOpenDialog(frame) != JFileChooser.APPROVE_OPTION) return;
+
+        File file = checkpointChooser.getSelectedFile();
+        simulationPanel.loadCheckpoint(file.toPath(), () -> {
+            isSimulationRunning = true;
+            isPaused = true;
+            startButton.setEnabled(true);
+            pauseButton.setEnabled(false);
+            resetButton.setEnabled(true);
+        });
+    }
+
+    private void recordTrajectory(JFrame frame, JCheckBoxMenuItem item) {
+        if (!item.isSelected()) {
+            simulationPanel.stopRecording();
+            return;
+        }
+
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showSaveDialog(frame) != JFileChooser.APPROVE_OPTION) {
+            item.setSelected(false);
+            return;
+        }
+        try {
+            simulationPanel.startRecording(chooser.getSelectedFile().toPath());
+        } catch (IOException e) {
+            item.setSelected(false);
+            JOptionPane.showMessageDialog(frame, "Could not start recording: " + e.getMessage(),
+                    "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
     private void openGraphWindow() {
         if (graphFrame == null || !graphFrame.isVisible()) {
             graphFrame = new JFrame("Food Collection Graphs");
@@ -197,6 +348,15 @@ public class BeeSimulationGUI {
     }
 
     public static void main(String[] args) {
+        JmxExporter.register(MetricsRegistry.DEFAULT);
+        Integer metricsPort = Integer.getInteger(METRICS_PORT_PROPERTY);
+        if (metricsPort != null) {
+            try {
+                PrometheusServer.start(MetricsRegistry.DEFAULT, metricsPort);
+            } catch (IOException e) {
+                System.err.println("Could not start the metrics endpoint: " + e.getMessage());
+            }
+        }
         new BeeSimulationGUI();
     }
 }
@@ -0,0 +1,38 @@
+package metrics;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+public class Counter extends Metric implements CounterMBean {
+    private final LongAdder count = new LongAdder();
+
+    Counter(String name, String help, Map<String, String> labels) {
+        super(name, help, labels);
+    }
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void add(long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Counters only go up, got " + amount);
+        }
+        count.add(amount);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    String type() {
+        return "counter";
+    }
+
+    @Override
+    void writeSamples(StringBuilder out) {
+        PrometheusFormat.sample(out, getName(), getLabels(), null, getCount());
+    }
+}
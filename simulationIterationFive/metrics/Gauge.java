@@ -0,0 +1,34 @@
+package metrics;
+
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+
+// Read on demand by the exporters, so the supplier must be safe to call
+// from their threads.
+public class Gauge extends Metric implements GaugeMBean {
+    private volatile DoubleSupplier value;
+
+    Gauge(String name, String help, Map<String, String> labels, DoubleSupplier value) {
+        super(name, help, labels);
+        this.value = value;
+    }
+
+    void setSupplier(DoubleSupplier value) {
+        this.value = value;
+    }
+
+    @Override
+    public double getValue() {
+        return value.getAsDouble();
+    }
+
+    @Override
+    String type() {
+        return "gauge";
+    }
+
+    @Override
+    void writeSamples(StringBuilder out) {
+        PrometheusFormat.sample(out, getName(), getLabels(), null, getValue());
+    }
+}
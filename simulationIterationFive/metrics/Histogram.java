@@ -0,0 +1,74 @@
+package metrics;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Durations are recorded in nanoseconds and exported in seconds. Each
+// bucket is a striped counter, so recording never contends on one word.
+public class Histogram extends Metric implements HistogramMBean {
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final double[] bounds;
+    private final long[] boundNanos;
+    private final LongAdder[] buckets;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+
+    Histogram(String name, String help, Map<String, String> labels, double[] bounds) {
+        super(name, help, labels);
+        this.bounds = bounds.clone();
+        this.boundNanos = new long[bounds.length];
+        this.buckets = new LongAdder[bounds.length + 1];
+        for (int b = 0; b < bounds.length; b++) {
+            if (b > 0 && bounds[b] <= bounds[b - 1]) {
+                throw new IllegalArgumentException("Histogram bounds must increase: " + name);
+            }
+            boundNanos[b] = (long) (bounds[b] * NANOS_PER_SECOND);
+        }
+        for (int b = 0; b < buckets.length; b++) {
+            buckets[b] = new LongAdder();
+        }
+    }
+
+    public void observeNanos(long nanos) {
+        int bucket = 0;
+        while (bucket < boundNanos.length && nanos > boundNanos[bucket]) bucket++;
+        buckets[bucket].increment();
+        count.increment();
+        sumNanos.add(nanos);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public double getSumSeconds() {
+        return sumNanos.sum() / NANOS_PER_SECOND;
+    }
+
+    @Override
+    public double getMeanSeconds() {
+        long count = getCount();
+        return count == 0 ? 0 : getSumSeconds() / count;
+    }
+
+    @Override
+    String type() {
+        return "histogram";
+    }
+
+    @Override
+    void writeSamples(StringBuilder out) {
+        long cumulative = 0;
+        for (int b = 0; b < buckets.length; b++) {
+            cumulative += buckets[b].sum();
+            String bound = b < bounds.length ? PrometheusFormat.number(bounds[b]) : "+Inf";
+            PrometheusFormat.sample(out, getName() + "_bucket", getLabels(), bound, cumulative);
+        }
+        PrometheusFormat.sample(out, getName() + "_sum", getLabels(), null, getSumSeconds());
+        PrometheusFormat.sample(out, getName() + "_count", getLabels(), null, cumulative);
+    }
+}
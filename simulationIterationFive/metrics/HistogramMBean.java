@@ -0,0 +1,9 @@
+package metrics;
+
+public interface HistogramMBean {
+    long getCount();
+
+    double getSumSeconds();
+
+    double getMeanSeconds();
+}
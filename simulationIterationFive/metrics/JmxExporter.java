@@ -0,0 +1,43 @@
+package metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+// Registers every metric of a registry, including ones added later, as a
+// standard MBean named <domain>:type=Counter|Gauge|Histogram,name=<name>,<labels>.
+public final class JmxExporter {
+    public static final String DEFAULT_DOMAIN = "simulation.metrics";
+
+    private JmxExporter() {
+    }
+
+    public static void register(MetricsRegistry registry) {
+        register(registry, ManagementFactory.getPlatformMBeanServer(), DEFAULT_DOMAIN);
+    }
+
+    public static void register(MetricsRegistry registry, MBeanServer server, String domain) {
+        registry.addListener(metric -> {
+            try {
+                server.registerMBean(metric, objectName(domain, metric));
+            } catch (InstanceAlreadyExistsException e) {
+                // Already exported by an earlier call.
+            } catch (JMException e) {
+                throw new IllegalStateException("Could not register " + metric.getName() + " with JMX", e);
+            }
+        });
+    }
+
+    static ObjectName objectName(String domain, Metric metric) throws JMException {
+        StringBuilder name = new StringBuilder(domain)
+                .append(":type=").append(metric.getClass().getSimpleName())
+                .append(",name=").append(metric.getName());
+        for (Map.Entry<String, String> label : metric.getLabels().entrySet()) {
+            name.append(',').append(label.getKey()).append('=').append(ObjectName.quote(label.getValue()));
+        }
+        return new ObjectName(name.toString());
+    }
+}
@@ -0,0 +1,31 @@
+package metrics;
+
+import java.util.Map;
+
+public abstract class Metric {
+    private final String name;
+    private final String help;
+    private final Map<String, String> labels;
+
+    Metric(String name, String help, Map<String, String> labels) {
+        this.name = name;
+        this.help = help;
+        this.labels = labels;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getHelp() {
+        return help;
+    }
+
+    public Map<String, String> getLabels() {
+        return labels;
+    }
+
+    abstract String type();
+
+    abstract void writeSamples(StringBuilder out);
+}
@@ -0,0 +1,97 @@
+package metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+// Instruments are looked up by name and labels, so a class can keep its
+// instruments in static fields and get the same one every time. Metrics
+// sharing a name form one family and are exported together.
+public class MetricsRegistry {
+    public static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    // Upper bounds in seconds, from 50 microseconds to 1 second.
+    public static final double[] DURATION_BUCKETS = {
+        0.00005, 0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1
+    };
+
+    private static final Pattern NAME = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+    private static final Pattern LABEL = Pattern.compile("[a-zA-Z_][a-zA-Z0-9_]*");
+
+    private final Map<String, List<Metric>> families = new LinkedHashMap<>();
+    private final List<Consumer<Metric>> listeners = new ArrayList<>();
+
+    public Counter counter(String name, String help, String... labels) {
+        return register(Counter.class, name, labels, values -> new Counter(name, help, values));
+    }
+
+    public Histogram histogram(String name, String help, String... labels) {
+        return histogram(name, help, DURATION_BUCKETS, labels);
+    }
+
+    public Histogram histogram(String name, String help, double[] bounds, String... labels) {
+        return register(Histogram.class, name, labels, values -> new Histogram(name, help, values, bounds));
+    }
+
+    // Registering a gauge again replaces its supplier, so whoever owns the
+    // measured object last is the one reported.
+    public synchronized Gauge gauge(String name, String help, DoubleSupplier value, String... labels) {
+        Gauge gauge = register(Gauge.class, name, labels, values -> new Gauge(name, help, values, value));
+        gauge.setSupplier(value);
+        return gauge;
+    }
+
+    // The listener is called for every metric already registered and then
+    // for each new one, on the registering thread.
+    public synchronized void addListener(Consumer<Metric> listener) {
+        listeners.add(listener);
+        for (Metric metric : getMetrics()) listener.accept(metric);
+    }
+
+    public synchronized List<Metric> getMetrics() {
+        List<Metric> metrics = new ArrayList<>();
+        for (List<Metric> family : families.values()) metrics.addAll(family);
+        return metrics;
+    }
+
+    private synchronized <T extends Metric> T register(Class<T> type, String name, String[] labels,
+                                                       Function<Map<String, String>, T> create) {
+        if (!NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid metric name: " + name);
+        }
+        Map<String, String> values = labelMap(name, labels);
+
+        List<Metric> family = families.computeIfAbsent(name, key -> new ArrayList<>());
+        for (Metric metric : family) {
+            if (!type.isInstance(metric)) {
+                throw new IllegalArgumentException(name + " is already registered as a " + metric.type());
+            }
+            if (metric.getLabels().equals(values)) return type.cast(metric);
+        }
+
+        T metric = create.apply(values);
+        family.add(metric);
+        for (Consumer<Metric> listener : listeners) listener.accept(metric);
+        return metric;
+    }
+
+    private static Map<String, String> labelMap(String name, String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels for " + name + " must be name, value pairs");
+        }
+        Map<String, String> values = new LinkedHashMap<>();
+        for (int l = 0; l < labels.length; l += 2) {
+            if (!LABEL.matcher(labels[l]).matches() || labels[l].equals("le")) {
+                throw new IllegalArgumentException("Invalid label name for " + name + ": " + labels[l]);
+            }
+            values.put(labels[l], labels[l + 1]);
+        }
+        return Collections.unmodifiableMap(values);
+    }
+}
@@ -0,0 +1,63 @@
+package metrics;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+// Prometheus text exposition format, version 0.0.4.
+final class PrometheusFormat {
+    static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private PrometheusFormat() {
+    }
+
+    static String write(List<Metric> metrics) {
+        StringBuilder out = new StringBuilder(metrics.size() * 64);
+        String family = null;
+        for (Metric metric : metrics) {
+            if (!metric.getName().equals(family)) {
+                family = metric.getName();
+                out.append("# HELP ").append(family).append(' ').append(escapeHelp(metric.getHelp())).append('\n');
+                out.append("# TYPE ").append(family).append(' ').append(metric.type()).append('\n');
+            }
+            metric.writeSamples(out);
+        }
+        return out.toString();
+    }
+
+    static void sample(StringBuilder out, String name, Map<String, String> labels, String le, long value) {
+        labels(out.append(name), labels, le).append(' ').append(value).append('\n');
+    }
+
+    static void sample(StringBuilder out, String name, Map<String, String> labels, String le, double value) {
+        labels(out.append(name), labels, le).append(' ').append(number(value)).append('\n');
+    }
+
+    static String number(double value) {
+        if (Double.isNaN(value)) return "NaN";
+        if (Double.isInfinite(value)) return value > 0 ? "+Inf" : "-Inf";
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) return Long.toString((long) value);
+        return BigDecimal.valueOf(value).toPlainString();
+    }
+
+    private static StringBuilder labels(StringBuilder out, Map<String, String> labels, String le) {
+        if (labels.isEmpty() && le == null) return out;
+
+        out.append('{');
+        String separator = "";
+        for (Map.Entry<String, String> label : labels.entrySet()) {
+            out.append(separator).append(label.getKey()).append("=\"").append(escapeLabel(label.getValue())).append('"');
+            separator = ",";
+        }
+        if (le != null) out.append(separator).append("le=\"").append(le).append('"');
+        return out.append('}');
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,106 @@
+package metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Serves a registry at http://localhost:<port>/metrics. It only binds the
+// loopback address; put a proxy in front of it to scrape from elsewhere.
+public class PrometheusServer implements Closeable {
+    public static final String PATH = "/metrics";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private PrometheusServer(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    // Port 0 picks a free port; getPort() reports which.
+    public static PrometheusServer start(MetricsRegistry registry, int port) throws IOException {
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException("Port must be between 0 and 65535, got " + port);
+        }
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        ExecutorService executor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "metrics-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        // Every path comes here so unknown ones get a 404 that keeps the
+        // connection open, unlike the server's own.
+        server.createContext("/", exchange -> serve(registry, exchange));
+        server.start();
+        return new PrometheusServer(server, executor);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private static void serve(MetricsRegistry registry, HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("HEAD")) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                sendError(exchange, 405, "Method not allowed\n");
+                return;
+            }
+            if (!exchange.getRequestURI().getPath().equals(PATH)) {
+                sendError(exchange, 404, "Not found\n");
+                return;
+            }
+
+            byte[] body = PrometheusFormat.write(registry.getMetrics()).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", PrometheusFormat.CONTENT_TYPE);
+            if (method.equals("HEAD")) {
+                sendHeadersOnly(exchange, 200);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    // A response without a body makes the server close the connection without
+    // saying so, and a client that reuses it gets a reset; a short body avoids
+    // that.
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        if (exchange.getRequestMethod().equals("HEAD")) {
+            sendHeadersOnly(exchange, status);
+            return;
+        }
+        byte[] body = message.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    // HEAD responses never have a body, so tell the client the connection
+    // is going away.
+    private static void sendHeadersOnly(HttpExchange exchange, int status) throws IOException {
+        exchange.getResponseHeaders().set("Connection", "close");
+        exchange.sendResponseHeaders(status, -1);
+    }
+}
@@ -0,0 +1,92 @@
+package simulation;
+
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+public class ActiveRenderer extends Canvas {
+    private final SimulationLoop loop;
+    private final Supplier<Camera> camera;
+    private volatile int framesPerSecond;
+    private volatile boolean rendering = false;
+    private Thread thread;
+
+    public ActiveRenderer(SimulationLoop loop, int framesPerSecond, Supplier<Camera> camera) {
+        this.loop = loop;
+        this.camera = camera;
+        this.framesPerSecond = framesPerSecond;
+        setIgnoreRepaint(true);
+        setBackground(Color.GREEN);
+    }
+
+    public synchronized void start() {
+        if (thread != null) return;
+
+        rendering = true;
+        thread = new Thread(this::renderLoop, "active-renderer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        if (thread == null) return;
+
+        rendering = false;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    public void setFramesPerSecond(int framesPerSecond) {
+        this.framesPerSecond = framesPerSecond;
+    }
+
+    private void renderLoop() {
+        long nextFrame = System.nanoTime();
+        while (rendering) {
+            if (isDisplayable() && getWidth() > 0 && getHeight() > 0) {
+                renderFrame();
+            }
+
+            nextFrame += TimeUnit.SECONDS.toNanos(1) / framesPerSecond;
+            long wait = nextFrame - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else {
+                nextFrame = System.nanoTime();
+            }
+        }
+    }
+
+    private void renderFrame() {
+        BufferStrategy strategy = getBufferStrategy();
+        if (strategy == null) {
+            createBufferStrategy(2);
+            strategy = getBufferStrategy();
+        }
+
+        do {
+            do {
+                Graphics g = strategy.getDrawGraphics();
+                try {
+                    g.setColor(getBackground());
+                    g.fillRect(0, 0, getWidth(), getHeight());
+                    WorldSnapshot snapshot = loop.getSnapshot();
+                    if (snapshot != null) {
+                        snapshot.draw(g, System.nanoTime(), camera.get(), getWidth(), getHeight());
+                    }
+                } finally {
+                    g.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+
+        Toolkit.getDefaultToolkit().sync();
+    }
+}
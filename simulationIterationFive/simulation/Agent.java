@@ -2,223 +2,330 @@ package simulation;
 
 import java.awt.*;
 import java.util.List;
-import java.util.Random;
 
 public class Agent {
-    private int x, y;
-    private double dx, dy;
-    private static final int SIZE = 15;
-    private static final double SPEED = 3.0;
-    private static final int COLLECTION_TIME = 60;
-    private static final int DEPOSIT_TIME = 60;
-    private static final int RESTING_TIME = 100;
-    private static final int SEARCH_TIMEOUT = 500;
-    private static final double REJUVENATION_CHANCE = 0.3;
-
-    private int collectionTimer = 0;
-    private int depositTimer = 0;
-    private int restingTimer = RESTING_TIME;
-    private int searchTimer = SEARCH_TIMEOUT;
-    private int carriedFood = 0;
-    private double approachAngle = 0; 
-
-    private Hive hive;
-    private FoodSource rememberedFoodSource = null;
-    private Random random = new Random();
+    static final int SIZE = 15;
 
     public enum State {
         RESTING, SEARCHING, COLLECTING, RETURNING, DEPOSITING
     }
 
-    private State state;
+    static final State[] STATES = State.values();
+    static final byte RESTING = 0, SEARCHING = 1, COLLECTING = 2, RETURNING = 3, DEPOSITING = 4;
+
+    private final Hive hive;
+    private final long seed;
+    private final double speed;
+    private final int collectionTime;
+    private final int depositTime;
+    private final int restingTime;
+    private final int searchTimeout;
+    private final double rejuvenationChance;
+    private final int avoidRadius;
+
+    public Agent(Hive hive, long seed) {
+        this(hive, seed, AgentParameters.DEFAULTS);
+    }
 
-    public Agent(Hive hive, boolean isResting) {
+    public Agent(Hive hive, long seed, AgentParameters parameters) {
         this.hive = hive;
-        int radius = random.nextInt(hive.getRadius());
-        double angle = random.nextDouble() * 2 * Math.PI;
+        this.seed = seed;
+        speed = parameters.getSpeed();
+        collectionTime = parameters.getCollectionTime();
+        depositTime = parameters.getDepositTime();
+        restingTime = parameters.getRestingTime();
+        searchTimeout = parameters.getSearchTimeout();
+        rejuvenationChance = parameters.getRejuvenationChance();
+        avoidRadius = parameters.getAvoidRadius();
+    }
+
+    public int spawn(AgentPopulation bees, boolean isResting) {
+        int i = bees.add(0, 0, 0, 0, isResting ? State.RESTING : State.SEARCHING);
+        long[] random = bees.randomState;
+        random[i] = RandomStreams.streamSeed(seed, i);
 
-        this.x = hive.getX() + (int) (radius * Math.cos(angle));
-        this.y = hive.getY() + (int) (radius * Math.sin(angle));
+        int radius = RandomStreams.nextInt(random, i, hive.getRadius());
+        double angle = RandomStreams.nextDouble(random, i) * 2 * Math.PI;
 
-        double directionAngle = random.nextDouble() * 2 * Math.PI;
-        this.dx = SPEED * Math.cos(directionAngle);
-        this.dy = SPEED * Math.sin(directionAngle);
+        bees.x[i] = hive.getX() + (int) (radius * Math.cos(angle));
+        bees.y[i] = hive.getY() + (int) (radius * Math.sin(angle));
 
-        this.state = isResting ? State.RESTING : State.SEARCHING;
+        double directionAngle = RandomStreams.nextDouble(random, i) * 2 * Math.PI;
+        bees.dx[i] = speed * Math.cos(directionAngle);
+        bees.dy[i] = speed * Math.sin(directionAngle);
+
+        bees.restingTimer[i] = restingTime;
+        bees.searchTimer[i] = searchTimeout;
+        return i;
     }
 
-    public void move(int panelWidth, int panelHeight, List<Agent> agents, List<FoodSource> foodSources) {
-        if (state == State.RESTING) {
-            restingTimer--;
-            if (restingTimer <= 0 && rememberedFoodSource != null) {
-                state = State.SEARCHING;
+    public void move(AgentPopulation previous, AgentPopulation bees, int i,
+                     int panelWidth, int panelHeight, SpatialGrid grid, List<FoodSource> foodSources,
+                     FoodIndex foodIndex) {
+        move(previous, bees, i, panelWidth, panelHeight, grid, foodSources, foodIndex, null);
+    }
+
+    public void move(AgentPopulation previous, AgentPopulation bees, int i,
+                     int panelWidth, int panelHeight, SpatialGrid grid, List<FoodSource> foodSources,
+                     FoodIndex foodIndex, PheromoneField pheromones) {
+        bees.copyAgent(previous, i);
+        byte[] state = bees.state;
+
+        if (state[i] == RESTING) {
+            bees.restingTimer[i]--;
+            if (bees.restingTimer[i] <= 0 && bees.rememberedSource[i] != -1) {
+                state[i] = SEARCHING;
             }
             return;
         }
 
-        if (state == State.COLLECTING) {
-            collectionTimer--;
-            if (collectionTimer <= 0) {
-                state = State.RETURNING;
+        if (state[i] == COLLECTING) {
+            bees.collectionTimer[i]--;
+            if (bees.collectionTimer[i] <= 0) {
+                state[i] = RETURNING;
             }
             return;
         }
 
-        if (state == State.RETURNING) {
-            moveTowardHive();
-            if (isCollidingWithHive()) {
-                state = State.DEPOSITING;
-                depositTimer = DEPOSIT_TIME;
-                approachAngle = Math.atan2(dy, dx); // 🔹 Store approach angle
-            }
+        if (state[i] == RETURNING) {
+            moveTowardHive(bees, i);
+            settle(bees, i, foodSources, foodIndex);
             return;
         }
 
-        if (state == State.DEPOSITING) {
-            depositTimer--;
-            if (depositTimer <= 0) {
-                depositFood();
-                decideNextState();
+        if (state[i] == DEPOSITING) {
+            bees.depositTimer[i]--;
+            if (bees.depositTimer[i] <= 0) {
+                depositFood(bees, i);
+                decideNextState(bees, i);
             }
             return;
         }
 
-        avoidCollision(agents);
+        if (pheromones != null) followPheromones(bees, i, pheromones);
+        avoidCollision(previous, bees, i, grid);
+
+        bees.x[i] += bees.dx[i];
+        bees.y[i] += bees.dy[i];
+        bees.searchTimer[i]--;
 
-        x += dx;
-        y += dy;
-        searchTimer--;
+        if (settle(bees, i, foodSources, foodIndex)) return;
 
-        for (FoodSource food : foodSources) {
-            if (isCollidingWith(food) && state == State.SEARCHING) {
-                startCollecting(food);
-                return;
+        checkWallCollision(bees, i, panelWidth, panelHeight);
+        normalizeVelocity(bees, i);
+    }
+
+    static boolean isMoving(byte state) {
+        return state == SEARCHING || state == RETURNING;
+    }
+
+    // The branchy part of a SEARCHING or RETURNING bee's tick, run once it has
+    // been steered and advanced. Returns true if the bee stopped moving freely.
+    boolean settle(AgentPopulation bees, int i, List<FoodSource> foodSources, FoodIndex foodIndex) {
+        if (bees.state[i] == RETURNING) {
+            if (isCollidingWithHive(bees, i)) {
+                bees.state[i] = DEPOSITING;
+                bees.depositTimer[i] = depositTime;
+                bees.approachAngle[i] = Math.atan2(bees.dy[i], bees.dx[i]); // 🔹 Store approach angle
             }
+            return true;
         }
 
-        if (searchTimer <= 0) {
-            forceReturnToHive();
-            return;
+        int food = findFoodSource(bees, i, foodSources, foodIndex);
+        if (food != -1) {
+            bees.pendingFood[i] = food;
+            return true;
         }
 
-        checkWallCollision(panelWidth, panelHeight);
-        normalizeVelocity();
+        if (bees.searchTimer[i] <= 0) {
+            forceReturnToHive(bees, i);
+            return true;
+        }
+        return false;
     }
 
-    private void moveTowardHive() {
+    void moveTowardHive(AgentPopulation bees, int i) {
         int hiveX = hive.getX();
         int hiveY = hive.getY();
 
-        double angle = Math.atan2(hiveY - y, hiveX - x);
-        dx = SPEED * Math.cos(angle);
-        dy = SPEED * Math.sin(angle);
+        double angle = Math.atan2(hiveY - bees.y[i], hiveX - bees.x[i]);
+        bees.dx[i] = speed * Math.cos(angle);
+        bees.dy[i] = speed * Math.sin(angle);
+
+        bees.x[i] += bees.dx[i];
+        bees.y[i] += bees.dy[i];
+    }
 
-        x += dx;
-        y += dy;
+    // Returns the food source this bee emptied, or -1.
+    public int resolvePending(AgentPopulation bees, int i, List<FoodSource> foodSources, FoodIndex foodIndex,
+                              SimulationEventBus events) {
+        int emptied = -1;
+        int source = bees.pendingFood[i];
+        if (source != -1) {
+            FoodSource food = foodSources.get(source);
+            boolean wasDepleted = food.isDepleted();
+            startCollecting(bees, i, source, food, events);
+            if (food.isDepleted()) {
+                foodIndex.remove(source);
+                if (!wasDepleted) emptied = source;
+            }
+            bees.pendingFood[i] = -1;
+        }
+        if (bees.pendingDeposit[i] > 0) {
+            hive.depositFood(bees.pendingDeposit[i]);
+            events.publishDeposit(bees.pendingDeposit[i], hive.getStoredFood());
+            bees.pendingDeposit[i] = 0;
+        }
+        return emptied;
     }
 
-    private void startCollecting(FoodSource food) {
+    void startCollecting(AgentPopulation bees, int i, int source, FoodSource food, SimulationEventBus events) {
         if (!food.isDepleted()) {
-            state = State.COLLECTING;
-            collectionTimer = COLLECTION_TIME;
-            carriedFood = Math.min(food.takeFood(10), 10);
-            rememberedFoodSource = food;
+            collect(bees, i, source, harvest(food));
+            events.publishCollection(source, bees.carriedFood[i], food.isDepleted());
         }
     }
 
-    private boolean isCollidingWithHive() {
-        int distance = (int) Math.sqrt(Math.pow(x - hive.getX(), 2) + Math.pow(y - hive.getY(), 2));
+    // What one bee takes from a source; 0 if it is already empty.
+    static int harvest(FoodSource food) {
+        return food.isDepleted() ? 0 : Math.min(food.takeFood(10), 10);
+    }
+
+    void collect(AgentPopulation bees, int i, int source, int amount) {
+        bees.state[i] = COLLECTING;
+        bees.collectionTimer[i] = collectionTime;
+        bees.carriedFood[i] = amount;
+        bees.rememberedSource[i] = source;
+    }
+
+    private boolean isCollidingWithHive(AgentPopulation bees, int i) {
+        int offsetX = bees.x[i] - hive.getX();
+        int offsetY = bees.y[i] - hive.getY();
+        int distance = (int) Math.sqrt((double) offsetX * offsetX + (double) offsetY * offsetY);
         return distance < hive.getRadius();
     }
 
-    private void depositFood() {
-        if (carriedFood > 0) {
-            hive.depositFood(carriedFood);
-            carriedFood = 0;
+    private void depositFood(AgentPopulation bees, int i) {
+        if (bees.carriedFood[i] > 0) {
+            bees.pendingDeposit[i] = bees.carriedFood[i];
+            bees.carriedFood[i] = 0;
         }
     }
 
-    private void decideNextState() {
-        if (rememberedFoodSource != null) {
-            double exitAngle = approachAngle + Math.PI; 
-            dx = SPEED * Math.cos(exitAngle);
-            dy = SPEED * Math.sin(exitAngle);
+    private void decideNextState(AgentPopulation bees, int i) {
+        if (bees.rememberedSource[i] != -1) {
+            double exitAngle = bees.approachAngle[i] + Math.PI;
+            bees.dx[i] = speed * Math.cos(exitAngle);
+            bees.dy[i] = speed * Math.sin(exitAngle);
 
-            x = hive.getX() + (int) ((hive.getRadius() + 2) * Math.cos(exitAngle));
-            y = hive.getY() + (int) ((hive.getRadius() + 2) * Math.sin(exitAngle));
+            bees.x[i] = hive.getX() + (int) ((hive.getRadius() + 2) * Math.cos(exitAngle));
+            bees.y[i] = hive.getY() + (int) ((hive.getRadius() + 2) * Math.sin(exitAngle));
 
-            state = State.SEARCHING;
-            searchTimer = SEARCH_TIMEOUT;
+            bees.state[i] = SEARCHING;
+            bees.searchTimer[i] = searchTimeout;
         } else {
-            if (random.nextDouble() < REJUVENATION_CHANCE) {
-                state = State.RESTING;
-                restingTimer = RESTING_TIME;
+            if (RandomStreams.nextDouble(bees.randomState, i) < rejuvenationChance) {
+                bees.state[i] = RESTING;
+                bees.restingTimer[i] = restingTime;
             } else {
-                state = State.SEARCHING;
-                searchTimer = SEARCH_TIMEOUT;
+                bees.state[i] = SEARCHING;
+                bees.searchTimer[i] = searchTimeout;
             }
         }
     }
 
 
-    private void forceReturnToHive() {
-        state = State.RETURNING;
+    private void forceReturnToHive(AgentPopulation bees, int i) {
+        bees.state[i] = RETURNING;
     }
 
-    private boolean isCollidingWith(FoodSource food) {
-        int distance = (int) Math.sqrt(Math.pow(x - food.getX(), 2) + Math.pow(y - food.getY(), 2));
+    private int findFoodSource(AgentPopulation bees, int i, List<FoodSource> foodSources, FoodIndex foodIndex) {
+        int x = bees.x[i], y = bees.y[i], reach = foodIndex.getReach();
+        int minColumn = foodIndex.column(x - reach), maxColumn = foodIndex.column(x + reach);
+        int minRow = foodIndex.row(y - reach), maxRow = foodIndex.row(y + reach);
+
+        int found = -1;
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                for (int k = foodIndex.cellStart(column, row), end = foodIndex.cellEnd(column, row); k < end; k++) {
+                    int f = foodIndex.sourceAt(k);
+                    if ((found == -1 || f < found) && isCollidingWith(bees, i, foodSources.get(f))) {
+                        found = f;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private boolean isCollidingWith(AgentPopulation bees, int i, FoodSource food) {
+        int offsetX = bees.x[i] - food.getX();
+        int offsetY = bees.y[i] - food.getY();
+        int distance = (int) Math.sqrt((double) offsetX * offsetX + (double) offsetY * offsetY);
         return distance < SIZE / 2 + food.getRadius();
     }
 
-    private void avoidCollision(List<Agent> agents) {
+    void avoidCollision(AgentPopulation previous, AgentPopulation bees, int i, SpatialGrid grid) {
+        int x = bees.x[i];
+        int y = bees.y[i];
         double repulseX = 0;
         double repulseY = 0;
 
-        for (Agent other : agents) {
-            if (this == other || other.state == State.RESTING) continue;
-
-            double distance = Math.sqrt(Math.pow(this.x - other.x, 2) + Math.pow(this.y - other.y, 2));
-            if (distance < 30) {
-                double dx = this.x - other.x;
-                double dy = this.y - other.y;
-                double magnitude = Math.sqrt(dx * dx + dy * dy);
-                if (magnitude != 0) {
-                    repulseX += (dx / magnitude) * (30 - distance);
-                    repulseY += (dy / magnitude) * (30 - distance);
+        int minColumn = grid.column(x - avoidRadius), maxColumn = grid.column(x + avoidRadius);
+        int minRow = grid.row(y - avoidRadius), maxRow = grid.row(y + avoidRadius);
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                for (int k = grid.cellStart(column, row), end = grid.cellEnd(column, row); k < end; k++) {
+                    int other = grid.agentAt(k);
+                    if (other == i) continue;
+
+                    int offsetX = x - previous.x[other];
+                    int offsetY = y - previous.y[other];
+                    int distanceSquared = offsetX * offsetX + offsetY * offsetY;
+                    if (distanceSquared < avoidRadius * avoidRadius && distanceSquared != 0) {
+                        double distance = Math.sqrt(distanceSquared);
+                        repulseX += (offsetX / distance) * (avoidRadius - distance);
+                        repulseY += (offsetY / distance) * (avoidRadius - distance);
+                    }
                 }
             }
         }
 
-        this.dx += repulseX * 0.1;
-        this.dy += repulseY * 0.1;
-        normalizeVelocity();
+        bees.dx[i] += repulseX * 0.1;
+        bees.dy[i] += repulseY * 0.1;
+        normalizeVelocity(bees, i);
+    }
+
+    // Turns a searching bee up the trail gradient; avoidCollision normalises
+    // the result back to the bee's speed.
+    void followPheromones(AgentPopulation bees, int i, PheromoneField pheromones) {
+        int x = bees.x[i], y = bees.y[i];
+        double attraction = pheromones.getAttraction();
+        bees.dx[i] += pheromones.gradientX(x, y) * attraction;
+        bees.dy[i] += pheromones.gradientY(x, y) * attraction;
     }
 
-    private void checkWallCollision(int panelWidth, int panelHeight) {
-        if (x <= 0 || x >= panelWidth - SIZE) dx = -dx;
-        if (y <= 0 || y >= panelHeight - SIZE) dy = -dy;
+    void checkWallCollision(AgentPopulation bees, int i, int panelWidth, int panelHeight) {
+        if (bees.x[i] <= 0 || bees.x[i] >= panelWidth - SIZE) bees.dx[i] = -bees.dx[i];
+        if (bees.y[i] <= 0 || bees.y[i] >= panelHeight - SIZE) bees.dy[i] = -bees.dy[i];
     }
 
-    private void normalizeVelocity() {
+    void normalizeVelocity(AgentPopulation bees, int i) {
+        double dx = bees.dx[i];
+        double dy = bees.dy[i];
         double magnitude = Math.sqrt(dx * dx + dy * dy);
         if (magnitude != 0) {
-            dx = (dx / magnitude) * SPEED;
-            dy = (dy / magnitude) * SPEED;
+            bees.dx[i] = (dx / magnitude) * speed;
+            bees.dy[i] = (dy / magnitude) * speed;
         }
     }
 
-    public void draw(Graphics g) {
-        int radius = SIZE / 2;
-        if (state == State.RESTING) {
-            g.setColor(Color.BLACK);
-            g.fillArc(x - radius, y - radius, SIZE, SIZE, 90, 180);
-            g.setColor(Color.YELLOW);
-            g.fillArc(x - radius, y - radius, SIZE, SIZE, 270, 180);
-        } else {
-            g.setColor(Color.YELLOW);
-            g.fillArc(x - radius, y - radius, SIZE, SIZE, 90, 180);
-            g.setColor(Color.BLACK);
-            g.fillArc(x - radius, y - radius, SIZE, SIZE, 270, 180);
-        }
+    Hive getHive() { return hive; }
+    double getSpeed() { return speed; }
+    int getAvoidRadius() { return avoidRadius; }
+
+    public void draw(Graphics g, AgentPopulation bees, int i) {
+        SpriteAtlas.drawBee(g, bees.state[i], bees.x[i], bees.y[i]);
     }
 }
@@ -0,0 +1,76 @@
+package simulation;
+
+public final class AgentParameters {
+    public static final AgentParameters DEFAULTS = new AgentParameters(3.0, 60, 60, 100, 500, 0.3, 30);
+
+    private final double speed;
+    private final int collectionTime;
+    private final int depositTime;
+    private final int restingTime;
+    private final int searchTimeout;
+    private final double rejuvenationChance;
+    private final int avoidRadius;
+
+    public AgentParameters(double speed, int collectionTime, int depositTime, int restingTime,
+                           int searchTimeout, double rejuvenationChance, int avoidRadius) {
+        if (speed <= 0) throw new IllegalArgumentException("Speed must be positive");
+        if (collectionTime < 1 || depositTime < 1 || restingTime < 1 || searchTimeout < 1) {
+            throw new IllegalArgumentException("Timers must be at least one tick");
+        }
+        if (rejuvenationChance < 0 || rejuvenationChance > 1) {
+            throw new IllegalArgumentException("Rejuvenation chance must be between 0 and 1");
+        }
+        if (avoidRadius < 0) throw new IllegalArgumentException("Avoid radius must not be negative");
+
+        this.speed = speed;
+        this.collectionTime = collectionTime;
+        this.depositTime = depositTime;
+        this.restingTime = restingTime;
+        this.searchTimeout = searchTimeout;
+        this.rejuvenationChance = rejuvenationChance;
+        this.avoidRadius = avoidRadius;
+    }
+
+    public AgentParameters withSpeed(double speed) {
+        return new AgentParameters(speed, collectionTime, depositTime, restingTime, searchTimeout, rejuvenationChance, avoidRadius);
+    }
+
+    public AgentParameters withCollectionTime(int collectionTime) {
+        return new AgentParameters(speed, collectionTime, depositTime, restingTime, searchTimeout, rejuvenationChance, avoidRadius);
+    }
+
+    public AgentParameters withDepositTime(int depositTime) {
+        return new AgentParameters(speed, collectionTime, depositTime, restingTime, searchTimeout, rejuvenationChance, avoidRadius);
+    }
+
+    public AgentParameters withRestingTime(int restingTime) {
+        return new AgentParameters(speed, collectionTime, depositTime, restingTime, searchTimeout, rejuvenationChance, avoidRadius);
+    }
+
+    public AgentParameters withSearchTimeout(int searchTimeout) {
+        return new AgentParameters(speed, collectionTime, depositTime, restingTime, searchTimeout, rejuvenationChance, avoidRadius);
+    }
+
+    public AgentParameters withRejuvenationChance(double rejuvenationChance) {
+        return new AgentParameters(speed, collectionTime, depositTime, restingTime, searchTimeout, rejuvenationChance, avoidRadius);
+    }
+
+    public AgentParameters withAvoidRadius(int avoidRadius) {
+        return new AgentParameters(speed, collectionTime, depositTime, restingTime, searchTimeout, rejuvenationChance, avoidRadius);
+    }
+
+    public double getSpeed() { return speed; }
+    public int getCollectionTime() { return collectionTime; }
+    public int getDepositTime() { return depositTime; }
+    public int getRestingTime() { return restingTime; }
+    public int getSearchTimeout() { return searchTimeout; }
+    public double getRejuvenationChance() { return rejuvenationChance; }
+    public int getAvoidRadius() { return avoidRadius; }
+
+    @Override
+    public String toString() {
+        return "speed=" + speed + ", collectionTime=" + collectionTime + ", depositTime=" + depositTime
+                + ", restingTime=" + restingTime + ", searchTimeout=" + searchTimeout
+                + ", rejuvenationChance=" + rejuvenationChance + ", avoidRadius=" + avoidRadius;
+    }
+}
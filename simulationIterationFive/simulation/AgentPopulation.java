@@ -0,0 +1,252 @@
+package simulation;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class AgentPopulation {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int size = 0;
+
+    int[] x, y;
+    double[] dx, dy;
+    byte[] state;
+    int[] collectionTimer;
+    int[] depositTimer;
+    int[] restingTimer;
+    int[] searchTimer;
+    int[] carriedFood;
+    double[] approachAngle;
+    int[] rememberedSource;
+    long[] randomState;
+    int[] pendingFood;
+    int[] pendingDeposit;
+    int[] colony;
+
+    public AgentPopulation() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    public int add(int x, int y, double dx, double dy, Agent.State state) {
+        if (size == this.x.length) {
+            allocate(size * 2);
+        }
+
+        int i = size++;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.dx[i] = dx;
+        this.dy[i] = dy;
+        this.state[i] = (byte) state.ordinal();
+        collectionTimer[i] = 0;
+        depositTimer[i] = 0;
+        restingTimer[i] = 0;
+        searchTimer[i] = 0;
+        carriedFood[i] = 0;
+        approachAngle[i] = 0;
+        rememberedSource[i] = -1;
+        randomState[i] = 0;
+        pendingFood[i] = -1;
+        pendingDeposit[i] = 0;
+        colony[i] = 0;
+        return i;
+    }
+
+    public void copyAgent(AgentPopulation from, int i) {
+        x[i] = from.x[i];
+        y[i] = from.y[i];
+        dx[i] = from.dx[i];
+        dy[i] = from.dy[i];
+        state[i] = from.state[i];
+        collectionTimer[i] = from.collectionTimer[i];
+        depositTimer[i] = from.depositTimer[i];
+        restingTimer[i] = from.restingTimer[i];
+        searchTimer[i] = from.searchTimer[i];
+        carriedFood[i] = from.carriedFood[i];
+        approachAngle[i] = from.approachAngle[i];
+        rememberedSource[i] = from.rememberedSource[i];
+        randomState[i] = from.randomState[i];
+        pendingFood[i] = -1;
+        pendingDeposit[i] = 0;
+        colony[i] = from.colony[i];
+    }
+
+    // Appends agent i of another population, which may sit at any index there.
+    int append(AgentPopulation from, int i) {
+        if (size == x.length) {
+            allocate(size * 2);
+        }
+
+        int j = size++;
+        x[j] = from.x[i];
+        y[j] = from.y[i];
+        dx[j] = from.dx[i];
+        dy[j] = from.dy[i];
+        state[j] = from.state[i];
+        collectionTimer[j] = from.collectionTimer[i];
+        depositTimer[j] = from.depositTimer[i];
+        restingTimer[j] = from.restingTimer[i];
+        searchTimer[j] = from.searchTimer[i];
+        carriedFood[j] = from.carriedFood[i];
+        approachAngle[j] = from.approachAngle[i];
+        rememberedSource[j] = from.rememberedSource[i];
+        randomState[j] = from.randomState[i];
+        pendingFood[j] = -1;
+        pendingDeposit[j] = 0;
+        colony[j] = from.colony[i];
+        return j;
+    }
+
+    static final int ENCODED_BYTES = 2 * 4 + 2 * 8 + 1 + 5 * 4 + 8 + 4 + 8 + 4;
+
+    // Writes agent i in the form read() expects; pending work is not sent.
+    void write(ByteBuffer out, int i) {
+        out.putInt(x[i]).putInt(y[i]).putDouble(dx[i]).putDouble(dy[i]).put(state[i])
+                .putInt(collectionTimer[i]).putInt(depositTimer[i]).putInt(restingTimer[i])
+                .putInt(searchTimer[i]).putInt(carriedFood[i]).putDouble(approachAngle[i])
+                .putInt(rememberedSource[i]).putLong(randomState[i]).putInt(colony[i]);
+    }
+
+    int read(ByteBuffer in) {
+        if (size == x.length) {
+            allocate(size * 2);
+        }
+
+        int j = size++;
+        x[j] = in.getInt();
+        y[j] = in.getInt();
+        dx[j] = in.getDouble();
+        dy[j] = in.getDouble();
+        state[j] = in.get();
+        collectionTimer[j] = in.getInt();
+        depositTimer[j] = in.getInt();
+        restingTimer[j] = in.getInt();
+        searchTimer[j] = in.getInt();
+        carriedFood[j] = in.getInt();
+        approachAngle[j] = in.getDouble();
+        rememberedSource[j] = in.getInt();
+        randomState[j] = in.getLong();
+        colony[j] = in.getInt();
+        pendingFood[j] = -1;
+        pendingDeposit[j] = 0;
+        return j;
+    }
+
+    // Moves the last agent into slot i.
+    void swapRemove(int i) {
+        int last = --size;
+        if (i != last) {
+            x[i] = x[last];
+            y[i] = y[last];
+            dx[i] = dx[last];
+            dy[i] = dy[last];
+            state[i] = state[last];
+            collectionTimer[i] = collectionTimer[last];
+            depositTimer[i] = depositTimer[last];
+            restingTimer[i] = restingTimer[last];
+            searchTimer[i] = searchTimer[last];
+            carriedFood[i] = carriedFood[last];
+            approachAngle[i] = approachAngle[last];
+            rememberedSource[i] = rememberedSource[last];
+            randomState[i] = randomState[last];
+            pendingFood[i] = pendingFood[last];
+            pendingDeposit[i] = pendingDeposit[last];
+            colony[i] = colony[last];
+        }
+    }
+
+    public void resize(int newSize) {
+        if (newSize > x.length) {
+            allocate(Math.max(newSize, x.length * 2));
+        }
+        size = newSize;
+    }
+
+    // Replaces the borders with the bees that are not resting and within
+    // 'reach' of the left or right edge of the strip [left, right).
+    void appendBorders(int left, int right, int reach, AgentPopulation leftBorder, AgentPopulation rightBorder) {
+        leftBorder.clear();
+        rightBorder.clear();
+        for (int i = 0; i < size; i++) {
+            if (state[i] == Agent.RESTING) continue;
+            if (x[i] < left + reach) leftBorder.append(this, i);
+            if (x[i] >= right - reach) rightBorder.append(this, i);
+        }
+    }
+
+    public void removeLast() {
+        if (size > 0) size--;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getX(int i) { return x[i]; }
+    public int getY(int i) { return y[i]; }
+    public int getCarriedFood(int i) { return carriedFood[i]; }
+
+    public Agent.State getState(int i) {
+        return Agent.STATES[state[i]];
+    }
+
+    public int count(Agent.State state) {
+        byte value = (byte) state.ordinal();
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (this.state[i] == value) count++;
+        }
+        return count;
+    }
+
+    public long checksum() {
+        long hash = size;
+        for (int i = 0; i < size; i++) {
+            hash = 31 * hash + x[i];
+            hash = 31 * hash + y[i];
+            hash = 31 * hash + Double.doubleToLongBits(dx[i]);
+            hash = 31 * hash + Double.doubleToLongBits(dy[i]);
+            hash = 31 * hash + state[i];
+            hash = 31 * hash + collectionTimer[i];
+            hash = 31 * hash + depositTimer[i];
+            hash = 31 * hash + restingTimer[i];
+            hash = 31 * hash + searchTimer[i];
+            hash = 31 * hash + carriedFood[i];
+            hash = 31 * hash + Double.doubleToLongBits(approachAngle[i]);
+            hash = 31 * hash + rememberedSource[i];
+            hash = 31 * hash + randomState[i];
+        }
+        return hash;
+    }
+
+    private void allocate(int capacity) {
+        x = grow(x, capacity);
+        y = grow(y, capacity);
+        dx = grow(dx, capacity);
+        dy = grow(dy, capacity);
+        state = state == null ? new byte[capacity] : Arrays.copyOf(state, capacity);
+        collectionTimer = grow(collectionTimer, capacity);
+        depositTimer = grow(depositTimer, capacity);
+        restingTimer = grow(restingTimer, capacity);
+        searchTimer = grow(searchTimer, capacity);
+        carriedFood = grow(carriedFood, capacity);
+        approachAngle = grow(approachAngle, capacity);
+        rememberedSource = grow(rememberedSource, capacity);
+        randomState = randomState == null ? new long[capacity] : Arrays.copyOf(randomState, capacity);
+        pendingFood = grow(pendingFood, capacity);
+        pendingDeposit = grow(pendingDeposit, capacity);
+        colony = grow(colony, capacity);
+    }
+
+    private static int[] grow(int[] array, int capacity) {
+        return array == null ? new int[capacity] : Arrays.copyOf(array, capacity);
+    }
+
+    private static double[] grow(double[] array, int capacity) {
+        return array == null ? new double[capacity] : Arrays.copyOf(array, capacity);
+    }
+}
@@ -0,0 +1,153 @@
+package simulation;
+
+import java.util.Arrays;
+
+// Parks bees in RESTING, COLLECTING and DEPOSITING on a timing wheel until
+// the tick on which their timer runs out; only bits set in the active set
+// are moved. A parked bee's timer is derived from its deadline on demand.
+class AgentScheduler {
+    private static final int WHEEL_SIZE = 256;
+    private static final long NEVER = Long.MAX_VALUE;
+
+    private long[] active = new long[0];
+    private long[] deadline = new long[0];
+    private long[] wakeTick = new long[0];
+    private final int[][] wheel = new int[WHEEL_SIZE][4];
+    private final int[] wheelSize = new int[WHEEL_SIZE];
+    private int count;
+    private int activeCount;
+    private int restingCount;
+
+    void rebuild(AgentPopulation bees, AgentPopulation next, long tick) {
+        count = bees.size();
+        next.resize(count);
+        if (deadline.length < count) {
+            deadline = new long[count];
+            wakeTick = new long[count];
+        }
+        active = new long[(count + 63) >>> 6];
+        Arrays.fill(wheelSize, 0);
+
+        activeCount = 0;
+        restingCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (isTimed(bees.state[i])) {
+                deadline[i] = tick + timer(bees, i);
+                schedule(bees, i, tick);
+                next.copyAgent(bees, i);
+            } else {
+                activate(i);
+            }
+        }
+    }
+
+    void wake(AgentPopulation bees, long tick) {
+        int slot = (int) (tick & (WHEEL_SIZE - 1));
+        int[] bucket = wheel[slot];
+        int kept = 0;
+        for (int k = 0, size = wheelSize[slot]; k < size; k++) {
+            int i = bucket[k];
+            if (wakeTick[i] == tick) {
+                if (bees.state[i] == Agent.RESTING) restingCount--;
+                setTimer(bees, i, (int) (deadline[i] - tick));
+                activate(i);
+            } else {
+                bucket[kept++] = i;
+            }
+        }
+        wheelSize[slot] = kept;
+    }
+
+    // Called once the bee's next record has been resolved; 'tick' is the tick
+    // that record belongs to. Returns true if the bee was parked.
+    boolean park(AgentPopulation next, int i, long tick) {
+        if (!isTimed(next.state[i])) return false;
+
+        deadline[i] = tick + timer(next, i);
+        active[i >>> 6] &= ~(1L << i);
+        activeCount--;
+        schedule(next, i, tick);
+        return true;
+    }
+
+    void syncTimers(AgentPopulation bees, long tick) {
+        for (int i = 0; i < count; i++) {
+            if (!isActive(i) && isTimed(bees.state[i])) {
+                setTimer(bees, i, (int) (deadline[i] - tick));
+            }
+        }
+    }
+
+    boolean isActive(int i) {
+        return (active[i >>> 6] & (1L << i)) != 0;
+    }
+
+    int nextActive(int from, int to) {
+        if (from >= to) return to;
+        int word = from >>> 6;
+        long bits = active[word] & (-1L << from);
+        while (true) {
+            if (bits != 0) {
+                int i = (word << 6) + Long.numberOfTrailingZeros(bits);
+                return Math.min(i, to);
+            }
+            if (++word << 6 >= to) return to;
+            bits = active[word];
+        }
+    }
+
+    int getActiveCount() {
+        return activeCount;
+    }
+
+    // Every RESTING bee is parked once a tick has been resolved.
+    int getRestingCount() {
+        return restingCount;
+    }
+
+    int size() {
+        return count;
+    }
+
+    private void schedule(AgentPopulation bees, int i, long tick) {
+        if (bees.state[i] == Agent.RESTING) restingCount++;
+        if (bees.state[i] == Agent.RESTING && bees.rememberedSource[i] == -1) {
+            wakeTick[i] = NEVER;
+            return;
+        }
+
+        // The move that takes the timer from 1 to 0 happens one tick before the deadline.
+        long wake = Math.max(tick, deadline[i] - 1);
+        wakeTick[i] = wake;
+        int slot = (int) (wake & (WHEEL_SIZE - 1));
+        if (wheelSize[slot] == wheel[slot].length) {
+            wheel[slot] = Arrays.copyOf(wheel[slot], wheelSize[slot] * 2);
+        }
+        wheel[slot][wheelSize[slot]++] = i;
+    }
+
+    private void activate(int i) {
+        active[i >>> 6] |= 1L << i;
+        activeCount++;
+    }
+
+    private static boolean isTimed(byte state) {
+        return state == Agent.RESTING || state == Agent.COLLECTING || state == Agent.DEPOSITING;
+    }
+
+    private static int timer(AgentPopulation bees, int i) {
+        switch (bees.state[i]) {
+            case Agent.RESTING: return bees.restingTimer[i];
+            case Agent.COLLECTING: return bees.collectionTimer[i];
+            default: return bees.depositTimer[i];
+        }
+    }
+
+    private static void setTimer(AgentPopulation bees, int i, int value) {
+        switch (bees.state[i]) {
+            case Agent.RESTING: bees.restingTimer[i] = value; break;
+            case Agent.COLLECTING: bees.collectionTimer[i] = value; break;
+            default: bees.depositTimer[i] = value;
+        }
+    }
+}
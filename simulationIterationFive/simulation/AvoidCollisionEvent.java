@@ -0,0 +1,27 @@
+package simulation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("simulation.AvoidCollision")
+@Label("Collision Avoidance")
+@Category({"Bee Simulation", "Tick"})
+@Description("Steering of one range of bees, including collision avoidance. Without a movement kernel "
+        + "the per-bee pass also covers food lookup and wall bounces.")
+@Enabled(false)
+@StackTrace(false)
+final class AvoidCollisionEvent extends jdk.jfr.Event {
+    @Label("Agents")
+    int agents;
+
+    @Label("Moving Agents")
+    @Description("Searching and returning bees in the range")
+    int movingAgents;
+
+    @Label("Movement Kernel")
+    String kernel;
+}
@@ -0,0 +1,64 @@
+package simulation;
+
+import java.awt.*;
+
+public final class Camera {
+    public static final double MIN_SCALE = 0.01;
+    public static final double MAX_SCALE = 8;
+    public static final Camera IDENTITY = new Camera(0, 0, 1);
+
+    private final double x, y;
+    private final double scale;
+
+    public Camera(double x, double y, double scale) {
+        this.x = x;
+        this.y = y;
+        this.scale = Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale));
+    }
+
+    public static Camera fit(int worldWidth, int worldHeight, int viewWidth, int viewHeight) {
+        if (viewWidth <= 0 || viewHeight <= 0) return IDENTITY;
+
+        double scale = Math.min(1, Math.min(viewWidth / (double) worldWidth, viewHeight / (double) worldHeight));
+        return new Camera((worldWidth - viewWidth / scale) / 2, (worldHeight - viewHeight / scale) / 2, scale)
+                .clampTo(worldWidth, worldHeight, viewWidth, viewHeight);
+    }
+
+    public Camera pan(double screenDx, double screenDy) {
+        return new Camera(x - screenDx / scale, y - screenDy / scale, scale);
+    }
+
+    public Camera zoom(double screenX, double screenY, double factor) {
+        double worldX = toWorldX(screenX), worldY = toWorldY(screenY);
+        double zoomed = Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale * factor));
+        return new Camera(worldX - screenX / zoomed, worldY - screenY / zoomed, zoomed);
+    }
+
+    public Camera clampTo(int worldWidth, int worldHeight, int viewWidth, int viewHeight) {
+        double visibleWidth = viewWidth / scale, visibleHeight = viewHeight / scale;
+        double clampedX = visibleWidth >= worldWidth
+                ? Math.min(0, Math.max(worldWidth - visibleWidth, x))
+                : Math.max(0, Math.min(worldWidth - visibleWidth, x));
+        double clampedY = visibleHeight >= worldHeight
+                ? Math.min(0, Math.max(worldHeight - visibleHeight, y))
+                : Math.max(0, Math.min(worldHeight - visibleHeight, y));
+        return clampedX == x && clampedY == y ? this : new Camera(clampedX, clampedY, scale);
+    }
+
+    public void apply(Graphics2D g) {
+        g.scale(scale, scale);
+        g.translate(-x, -y);
+    }
+
+    public double toWorldX(double screenX) {
+        return x + screenX / scale;
+    }
+
+    public double toWorldY(double screenY) {
+        return y + screenY / scale;
+    }
+
+    public double getX() { return x; }
+    public double getY() { return y; }
+    public double getScale() { return scale; }
+}
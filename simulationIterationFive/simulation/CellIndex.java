@@ -0,0 +1,70 @@
+package simulation;
+
+final class CellIndex {
+    private static final int MAX_CELLS = 1 << 16;
+
+    private final int cellSize;
+    private final int columns, rows;
+    private final int[] cellStart;
+    private final int[] order;
+
+    private CellIndex(int cellSize, int columns, int rows, int count) {
+        this.cellSize = cellSize;
+        this.columns = columns;
+        this.rows = rows;
+        this.cellStart = new int[columns * rows + 1];
+        this.order = new int[count];
+    }
+
+    static CellIndex build(int[] x, int[] y, int count, int minCellSize, int worldWidth, int worldHeight) {
+        int cellSize = Math.max(minCellSize, (int) Math.ceil(Math.sqrt((double) worldWidth * worldHeight / MAX_CELLS)));
+        int columns = Math.max(1, (worldWidth + cellSize - 1) / cellSize);
+        int rows = Math.max(1, (worldHeight + cellSize - 1) / cellSize);
+        CellIndex index = new CellIndex(cellSize, columns, rows, count);
+
+        int[] cellStart = index.cellStart;
+        for (int i = 0; i < count; i++) {
+            cellStart[index.cellFor(x[i], y[i]) + 1]++;
+        }
+        for (int cell = 0; cell < columns * rows; cell++) {
+            cellStart[cell + 1] += cellStart[cell];
+        }
+
+        int[] cursor = new int[columns * rows];
+        System.arraycopy(cellStart, 0, cursor, 0, cursor.length);
+        for (int i = 0; i < count; i++) {
+            index.order[cursor[index.cellFor(x[i], y[i])]++] = i;
+        }
+        return index;
+    }
+
+    int column(int x) {
+        return clamp(Math.floorDiv(x, cellSize), columns);
+    }
+
+    int row(int y) {
+        return clamp(Math.floorDiv(y, cellSize), rows);
+    }
+
+    int cellStart(int column, int row) {
+        return cellStart[row * columns + column];
+    }
+
+    int cellEnd(int column, int row) {
+        return cellStart[row * columns + column + 1];
+    }
+
+    int itemAt(int position) {
+        return order[position];
+    }
+
+    private int cellFor(int x, int y) {
+        return row(y) * columns + column(x);
+    }
+
+    private static int clamp(int value, int size) {
+        if (value < 0) return 0;
+        if (value >= size) return size - 1;
+        return value;
+    }
+}
@@ -0,0 +1,292 @@
+package simulation;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public final class Checkpoint {
+    private static final int MAGIC = 0x42454543;
+    public static final int VERSION = 2;
+
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 4 + 4
+            + 8 + 4 * 4 + 8 + 4
+            + 5 * 4
+            + 4 + 3 * 8
+            + 4 + 4;
+    private static final int FOOD_BYTES = 5 * 4 + 2;
+    private static final int AGENT_BYTES = 2 * 4 + 2 * 8 + 5 * 4 + 8 + 4 + 8 + 1;
+
+    private Checkpoint() {
+    }
+
+    public static void save(SimulationEngine engine, Path path) throws IOException {
+        engine.syncTimers();
+        AgentPopulation bees = engine.getAgents();
+        List<FoodSource> foodSources = engine.getFoodSources();
+        PheromoneField pheromones = engine.getPheromoneField();
+        int count = bees.size();
+
+        byte[][] labels = new byte[foodSources.size()][];
+        long headerBytes = HEADER_BYTES;
+        for (int f = 0; f < labels.length; f++) {
+            labels[f] = foodSources.get(f).getLabel().getBytes(StandardCharsets.UTF_8);
+            headerBytes += FOOD_BYTES + labels[f].length;
+        }
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer header = map(channel, FileChannel.MapMode.READ_WRITE, 0, headerBytes);
+            writeHeader(header, engine, labels, count);
+
+            long offset = headerBytes;
+            offset = write(channel, offset, bees.x, count);
+            offset = write(channel, offset, bees.y, count);
+            offset = write(channel, offset, bees.dx, count);
+            offset = write(channel, offset, bees.dy, count);
+            offset = write(channel, offset, bees.collectionTimer, count);
+            offset = write(channel, offset, bees.depositTimer, count);
+            offset = write(channel, offset, bees.restingTimer, count);
+            offset = write(channel, offset, bees.searchTimer, count);
+            offset = write(channel, offset, bees.carriedFood, count);
+            offset = write(channel, offset, bees.approachAngle, count);
+            offset = write(channel, offset, bees.rememberedSource, count);
+            offset = write(channel, offset, bees.randomState, count);
+            offset = write(channel, offset, bees.state, count);
+            float[] trail = pheromones == null ? new float[0] : pheromones.cells();
+            offset = write(channel, offset, trail, trail.length);
+
+            map(channel, FileChannel.MapMode.READ_WRITE, offset, 8).putLong(checksum(engine.checksum(), trail));
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static void restore(SimulationEngine engine, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + 8) {
+                throw new IOException("Not a checkpoint: " + path);
+            }
+
+            ByteBuffer header = map(channel, FileChannel.MapMode.READ_ONLY, 0, Math.min(size, Integer.MAX_VALUE));
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a checkpoint: " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported checkpoint version " + version + " in " + path);
+            }
+
+            long seed = header.getLong();
+            long tickCount = header.getLong();
+            int worldWidth = header.getInt();
+            int worldHeight = header.getInt();
+
+            AgentParameters parameters;
+            try {
+                parameters = new AgentParameters(header.getDouble(), header.getInt(), header.getInt(),
+                        header.getInt(), header.getInt(), header.getDouble(), header.getInt());
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Corrupt checkpoint parameters in " + path, e);
+            }
+
+            int hiveX = header.getInt(), hiveY = header.getInt(), hiveRadius = header.getInt();
+            int storedFood = header.getInt(), timeElapsed = header.getInt();
+
+            // A cell size of 0 means the run had no pheromone field.
+            int trailCellSize = header.getInt();
+            double diffusion = header.getDouble(), evaporation = header.getDouble(), attraction = header.getDouble();
+            long trailCells = 0;
+            if (trailCellSize != 0) {
+                if (trailCellSize < 0 || worldWidth < 1 || worldHeight < 1) {
+                    throw new IOException("Corrupt checkpoint parameters in " + path);
+                }
+                trailCells = (long) ((worldWidth + trailCellSize - 1) / trailCellSize)
+                        * ((worldHeight + trailCellSize - 1) / trailCellSize);
+            }
+
+            int foodCount = header.getInt();
+            int count = header.getInt();
+            long remaining = size - header.position() - 8;
+            if (foodCount < 0 || count < 0
+                    || (long) foodCount * FOOD_BYTES + (long) count * AGENT_BYTES + 4 * trailCells > remaining) {
+                throw new IOException("Corrupt checkpoint header in " + path);
+            }
+
+            List<FoodSource> foodSources = new ArrayList<>(foodCount);
+            for (int f = 0; f < foodCount; f++) {
+                int x = header.getInt(), y = header.getInt(), radius = header.getInt(), quantity = header.getInt();
+                Color color = new Color(header.getInt(), true);
+                int labelLength = header.getShort() & 0xFFFF;
+                if (labelLength > header.remaining()) {
+                    throw new IOException("Corrupt checkpoint food source in " + path);
+                }
+                byte[] label = new byte[labelLength];
+                header.get(label);
+                foodSources.add(new FoodSource(x, y, radius, quantity, new String(label, StandardCharsets.UTF_8), color));
+            }
+
+            long offset = header.position();
+            long expected = offset + (long) count * AGENT_BYTES + 4 * trailCells + 8;
+            if (size != expected) {
+                throw new IOException("Truncated checkpoint: expected " + expected + " bytes but found " + size);
+            }
+
+            // Decoded aside so a corrupt file leaves the running simulation untouched.
+            AgentPopulation bees = new AgentPopulation();
+            bees.resize(count);
+            offset = read(channel, offset, bees.x, count);
+            offset = read(channel, offset, bees.y, count);
+            offset = read(channel, offset, bees.dx, count);
+            offset = read(channel, offset, bees.dy, count);
+            offset = read(channel, offset, bees.collectionTimer, count);
+            offset = read(channel, offset, bees.depositTimer, count);
+            offset = read(channel, offset, bees.restingTimer, count);
+            offset = read(channel, offset, bees.searchTimer, count);
+            offset = read(channel, offset, bees.carriedFood, count);
+            offset = read(channel, offset, bees.approachAngle, count);
+            offset = read(channel, offset, bees.rememberedSource, count);
+            offset = read(channel, offset, bees.randomState, count);
+            offset = read(channel, offset, bees.state, count);
+            Arrays.fill(bees.pendingFood, 0, count, -1);
+            Arrays.fill(bees.pendingDeposit, 0, count, 0);
+
+            PheromoneField pheromones = null;
+            float[] trail = new float[0];
+            if (trailCellSize != 0) {
+                try {
+                    pheromones = new PheromoneField(worldWidth, worldHeight, trailCellSize, diffusion, evaporation,
+                            attraction);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Corrupt checkpoint parameters in " + path, e);
+                }
+                trail = pheromones.cells();
+            }
+            offset = read(channel, offset, trail, trail.length);
+
+            long checksum = map(channel, FileChannel.MapMode.READ_ONLY, offset, 8).getLong();
+            if (checksum(SimulationEngine.checksum(bees, tickCount, foodSources, storedFood), trail) != checksum) {
+                throw new IOException("Checkpoint checksum mismatch in " + path);
+            }
+
+            engine.getHive().restore(hiveX, hiveY, hiveRadius, storedFood, timeElapsed);
+            engine.restore(seed, tickCount, worldWidth, worldHeight, parameters, foodSources, bees, pheromones);
+        }
+    }
+
+    private static void writeHeader(ByteBuffer header, SimulationEngine engine, byte[][] labels, int count) {
+        AgentParameters parameters = engine.getParameters();
+        Hive hive = engine.getHive();
+
+        header.putInt(MAGIC).putInt(VERSION);
+        header.putLong(engine.getSeed()).putLong(engine.getTickCount());
+        header.putInt(engine.getWorldWidth()).putInt(engine.getWorldHeight());
+
+        header.putDouble(parameters.getSpeed());
+        header.putInt(parameters.getCollectionTime()).putInt(parameters.getDepositTime());
+        header.putInt(parameters.getRestingTime()).putInt(parameters.getSearchTimeout());
+        header.putDouble(parameters.getRejuvenationChance());
+        header.putInt(parameters.getAvoidRadius());
+
+        header.putInt(hive.getX()).putInt(hive.getY()).putInt(hive.getRadius());
+        header.putInt(hive.getStoredFood()).putInt(hive.getTimeElapsed());
+
+        PheromoneField pheromones = engine.getPheromoneField();
+        if (pheromones == null) {
+            header.putInt(0).putDouble(0).putDouble(0).putDouble(0);
+        } else {
+            header.putInt(pheromones.getCellSize()).putDouble(pheromones.getDiffusion())
+                    .putDouble(pheromones.getEvaporation()).putDouble(pheromones.getAttraction());
+        }
+
+        List<FoodSource> foodSources = engine.getFoodSources();
+        header.putInt(foodSources.size()).putInt(count);
+        for (int f = 0; f < labels.length; f++) {
+            FoodSource food = foodSources.get(f);
+            header.putInt(food.getX()).putInt(food.getY()).putInt(food.getRadius()).putInt(food.getQuantity());
+            header.putInt(food.getColor().getRGB());
+            header.putShort((short) labels[f].length).put(labels[f]);
+        }
+    }
+
+    // The world checksum, extended over the trail so a damaged field is caught too.
+    private static long checksum(long world, float[] trail) {
+        long hash = world;
+        for (float value : trail) {
+            hash = 31 * hash + Float.floatToIntBits(value);
+        }
+        return hash;
+    }
+
+    private static long write(FileChannel channel, long offset, int[] values, int count) throws IOException {
+        map(channel, FileChannel.MapMode.READ_WRITE, offset, 4L * count).asIntBuffer().put(values, 0, count);
+        return offset + 4L * count;
+    }
+
+    private static long write(FileChannel channel, long offset, long[] values, int count) throws IOException {
+        map(channel, FileChannel.MapMode.READ_WRITE, offset, 8L * count).asLongBuffer().put(values, 0, count);
+        return offset + 8L * count;
+    }
+
+    private static long write(FileChannel channel, long offset, double[] values, int count) throws IOException {
+        map(channel, FileChannel.MapMode.READ_WRITE, offset, 8L * count).asDoubleBuffer().put(values, 0, count);
+        return offset + 8L * count;
+    }
+
+    private static long write(FileChannel channel, long offset, float[] values, int count) throws IOException {
+        map(channel, FileChannel.MapMode.READ_WRITE, offset, 4L * count).asFloatBuffer().put(values, 0, count);
+        return offset + 4L * count;
+    }
+
+    private static long write(FileChannel channel, long offset, byte[] values, int count) throws IOException {
+        map(channel, FileChannel.MapMode.READ_WRITE, offset, count).put(values, 0, count);
+        return offset + count;
+    }
+
+    private static long read(FileChannel channel, long offset, int[] values, int count) throws IOException {
+        map(channel, FileChannel.MapMode.READ_ONLY, offset, 4L * count).asIntBuffer().get(values, 0, count);
+        return offset + 4L * count;
+    }
+
+    private static long read(FileChannel channel, long offset, long[] values, int count) throws IOException {
+        map(channel, FileChannel.MapMode.READ_ONLY, offset, 8L * count).asLongBuffer().get(values, 0, count);
+        return offset + 8L * count;
+    }
+
+    private static long read(FileChannel channel, long offset, double[] values, int count) throws IOException {
+        map(channel, FileChannel.MapMode.READ_ONLY, offset, 8L * count).asDoubleBuffer().get(values, 0, count);
+        return offset + 8L * count;
+    }
+
+    private static long read(FileChannel channel, long offset, float[] values, int count) throws IOException {
+        map(channel, FileChannel.MapMode.READ_ONLY, offset, 4L * count).asFloatBuffer().get(values, 0, count);
+        return offset + 4L * count;
+    }
+
+    private static long read(FileChannel channel, long offset, byte[] values, int count) throws IOException {
+        map(channel, FileChannel.MapMode.READ_ONLY, offset, count).get(values, 0, count);
+        return offset + count;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long offset, long bytes)
+            throws IOException {
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IOException("Checkpoint section of " + bytes + " bytes is too large to map");
+        }
+        MappedByteBuffer buffer = channel.map(mode, offset, bytes);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+}
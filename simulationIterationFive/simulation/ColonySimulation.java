@@ -0,0 +1,255 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+// Several hives sharing one world. The world is cut into vertical strips, each
+// owned by a Region that moves its own bees. A tick runs in lockstep phases:
+// regions publish their border bees, move, settle claims on the food they own,
+// hand leaving bees to their new region and take in the ones arriving. Regions only meet through queues and
+// the read-only border bands, so the result does not depend on parallelism.
+public class ColonySimulation {
+    private final int worldWidth, worldHeight;
+    private final List<Hive> hives;
+    private final AgentParameters parameters;
+    private final Agent[] agents;
+    private final Region[] regions;
+    private final int stripWidth;
+    private final long seed;
+    private final List<FoodSource> foodSources = new ArrayList<>();
+    private final FoodIndex foodIndex = new FoodIndex(30);
+    private final SimulationEventBus events = new SimulationEventBus();
+    private long tickCount = 0;
+    private ForkJoinPool pool;
+
+    public ColonySimulation(int worldWidth, int worldHeight, List<Hive> hives, int regionCount, long seed) {
+        this(worldWidth, worldHeight, hives, regionCount, seed, AgentParameters.DEFAULTS);
+    }
+
+    public ColonySimulation(int worldWidth, int worldHeight, List<Hive> hives, int regionCount, long seed,
+                            AgentParameters parameters) {
+        if (hives.isEmpty()) {
+            throw new IllegalArgumentException("At least one hive is needed");
+        }
+        stripWidth = stripWidth(worldWidth, regionCount, parameters);
+
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        this.hives = List.copyOf(hives);
+        this.parameters = parameters;
+        this.seed = seed;
+
+        agents = new Agent[hives.size()];
+        for (int c = 0; c < agents.length; c++) {
+            agents[c] = new Agent(hives.get(c), RandomStreams.streamSeed(seed, c), parameters);
+        }
+        regions = new Region[regionCount];
+        for (int r = 0; r < regionCount; r++) {
+            regions[r] = new Region(r, regionCount, r * stripWidth, Math.min(worldWidth, (r + 1) * stripWidth));
+        }
+    }
+
+    static int stripWidth(int worldWidth, int regionCount, AgentParameters parameters) {
+        if (regionCount < 1) {
+            throw new IllegalArgumentException("Region count must be at least 1");
+        }
+        int stripWidth = (worldWidth + regionCount - 1) / regionCount;
+        if (regionCount > 1 && stripWidth <= parameters.getAvoidRadius()) {
+            throw new IllegalArgumentException("Regions " + stripWidth + " px wide must be wider than the avoid radius of "
+                    + parameters.getAvoidRadius() + " px");
+        }
+        return stripWidth;
+    }
+
+    static int regionOf(int x, int stripWidth, int regionCount) {
+        int region = Math.floorDiv(x, stripWidth);
+        if (region < 0) return 0;
+        if (region >= regionCount) return regionCount - 1;
+        return region;
+    }
+
+    // Hives evenly spaced along the middle of the world.
+    public static List<Hive> spreadHives(int count, int worldWidth, int worldHeight, int radius) {
+        List<Hive> hives = new ArrayList<>();
+        for (int c = 0; c < count; c++) {
+            hives.add(new Hive((2 * c + 1) * worldWidth / (2 * count), worldHeight / 2, radius));
+        }
+        return hives;
+    }
+
+    // Replaces every bee; each colony gets the same number of bees.
+    public void setPopulation(int beesPerColony) {
+        AgentPopulation[] strips = new AgentPopulation[regions.length];
+        for (Region region : regions) {
+            region.clear();
+            strips[region.index] = region.getBees();
+        }
+        spawnColonies(agents, beesPerColony, stripWidth, strips);
+    }
+
+    // Spawns every colony in turn and appends each bee to the strip it starts
+    // in; bees starting in a strip left null are dropped.
+    static void spawnColonies(Agent[] agents, int beesPerColony, int stripWidth, AgentPopulation[] strips) {
+        AgentPopulation spawned = new AgentPopulation();
+        for (int c = 0; c < agents.length; c++) {
+            spawned.clear();
+            for (int i = 0; i < beesPerColony; i++) {
+                agents[c].spawn(spawned, i % 10 == 0);
+                spawned.colony[i] = c;
+            }
+            for (int i = 0; i < spawned.size(); i++) {
+                AgentPopulation strip = strips[regionOf(spawned.x[i], stripWidth, strips.length)];
+                if (strip != null) strip.append(spawned, i);
+            }
+        }
+    }
+
+    public void setFoodSources(int count) {
+        FoodSource.placeAll(foodSources, seed, count, worldWidth, worldHeight, hives);
+        foodIndex.rebuild(foodSources, worldWidth, worldHeight);
+    }
+
+    public void setParallelism(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+        if (threads > 1) {
+            pool = new ForkJoinPool(threads);
+        }
+    }
+
+    public void tick() {
+        int avoidRadius = parameters.getAvoidRadius();
+        runPhase(region -> region.publishBorders(avoidRadius));
+        runPhase(region -> region.move(this));
+        runPhase(region -> region.settleClaims(this));
+        for (Region region : regions) region.applyDeposits(hives, foodIndex);
+        runPhase(region -> region.depart(this));
+        runPhase(Region::arrive);
+
+        tickCount++;
+        if (tickCount % SimulationEngine.TICKS_PER_SECOND == 0) {
+            for (Hive hive : hives) hive.incrementTime();
+        }
+    }
+
+    public void run(long ticks) {
+        for (long t = 0; t < ticks; t++) {
+            tick();
+        }
+    }
+
+    private void runPhase(Consumer<Region> phase) {
+        if (pool == null) {
+            for (Region region : regions) phase.accept(region);
+        } else {
+            pool.invoke(new PhaseTask(phase, 0, regions.length));
+        }
+    }
+
+    int regionOf(int x) {
+        return regionOf(x, stripWidth, regions.length);
+    }
+
+    Region region(int index) {
+        return index >= 0 && index < regions.length ? regions[index] : null;
+    }
+
+    Agent[] agents() {
+        return agents;
+    }
+
+    public int getPopulation() {
+        int population = 0;
+        for (Region region : regions) population += region.getBees().size();
+        return population;
+    }
+
+    public long getFoodInFlight() {
+        long carried = 0;
+        for (Region region : regions) {
+            AgentPopulation bees = region.getBees();
+            for (int i = 0; i < bees.size(); i++) carried += bees.carriedFood[i];
+        }
+        return carried;
+    }
+
+    public int getRegionCount() {
+        return regions.length;
+    }
+
+    public List<Hive> getHives() {
+        return hives;
+    }
+
+    public List<FoodSource> getFoodSources() {
+        return Collections.unmodifiableList(foodSources);
+    }
+
+    FoodIndex getFoodIndex() {
+        return foodIndex;
+    }
+
+    SimulationEventBus getEvents() {
+        return events;
+    }
+
+    public AgentParameters getParameters() {
+        return parameters;
+    }
+
+    public int getWorldWidth() { return worldWidth; }
+    public int getWorldHeight() { return worldHeight; }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    public long checksum() {
+        long[] beeChecksums = new long[regions.length];
+        for (int r = 0; r < regions.length; r++) beeChecksums[r] = regions[r].getBees().checksum();
+        int[] foodQuantities = new int[foodSources.size()];
+        for (int f = 0; f < foodQuantities.length; f++) foodQuantities[f] = foodSources.get(f).getQuantity();
+        int[] storedFood = new int[hives.size()];
+        for (int c = 0; c < storedFood.length; c++) storedFood[c] = hives.get(c).getStoredFood();
+        return checksum(tickCount, beeChecksums, foodQuantities, storedFood);
+    }
+
+    // Shared with distributed runs, which gather the same parts from each tile.
+    public static long checksum(long tickCount, long[] beeChecksums, int[] foodQuantities, int[] storedFood) {
+        long hash = tickCount;
+        for (long bees : beeChecksums) hash = 31 * hash + bees;
+        for (int quantity : foodQuantities) hash = 31 * hash + quantity;
+        for (int stored : storedFood) hash = 31 * hash + stored;
+        return hash;
+    }
+
+    private class PhaseTask extends RecursiveAction {
+        private final Consumer<Region> phase;
+        private final int from, to;
+
+        PhaseTask(Consumer<Region> phase, int from, int to) {
+            this.phase = phase;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                phase.accept(regions[from]);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new PhaseTask(phase, from, middle), new PhaseTask(phase, middle, to));
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package simulation;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+public final class DensityGrid {
+    private static final int[] STATE_COLORS = {
+        0x303030, // RESTING
+        0xFFD700, // SEARCHING
+        0xFF8C00, // COLLECTING
+        0x1E90FF, // RETURNING
+        0xB22222  // DEPOSITING
+    };
+
+    private int cellSize = 1;
+    private int originColumn, originRow;
+    private int columns, rows;
+    private int[][] counts = new int[Agent.STATES.length][0];
+    private int[] totals = new int[0];
+    private int maxCount = 0;
+    private BufferedImage image;
+    private boolean rendered = false;
+
+    DensityGrid() {
+    }
+
+    public static DensityGrid accumulate(AgentPopulation bees, int cellSize, int worldWidth, int worldHeight) {
+        DensityGrid grid = new DensityGrid();
+        grid.accumulate(bees, null, bees.size(), new Rectangle(0, 0, worldWidth, worldHeight),
+                cellSize, worldWidth, worldHeight);
+        return grid;
+    }
+
+    // Covers only the cells that overlap the area and counts the listed bees,
+    // or the first 'count' when there is no list. Grids are reused, so this
+    // and draw lock against each other: a frame still painting the grid's
+    // last contents then shows the newer counts, never half of them.
+    synchronized void accumulate(AgentPopulation bees, int[] indices, int count, Rectangle area,
+                                 int cellSize, int worldWidth, int worldHeight) {
+        int worldColumns = Math.max(1, (worldWidth + cellSize - 1) / cellSize);
+        int worldRows = Math.max(1, (worldHeight + cellSize - 1) / cellSize);
+        this.cellSize = cellSize;
+        originColumn = clamp(Math.floorDiv(area.x, cellSize), 0, worldColumns - 1);
+        originRow = clamp(Math.floorDiv(area.y, cellSize), 0, worldRows - 1);
+        int lastColumn = clamp(Math.floorDiv(area.x + area.width, cellSize), originColumn, worldColumns - 1);
+        int lastRow = clamp(Math.floorDiv(area.y + area.height, cellSize), originRow, worldRows - 1);
+        columns = lastColumn - originColumn + 1;
+        rows = lastRow - originRow + 1;
+
+        int cells = columns * rows;
+        if (totals.length < cells) {
+            totals = new int[cells];
+            for (int state = 0; state < counts.length; state++) counts[state] = new int[cells];
+        } else {
+            Arrays.fill(totals, 0, cells, 0);
+            for (int[] stateCounts : counts) Arrays.fill(stateCounts, 0, cells, 0);
+        }
+
+        maxCount = 0;
+        for (int k = 0; k < count; k++) {
+            int i = indices == null ? k : indices[k];
+            int column = clamp(bees.x[i] / cellSize, originColumn, lastColumn) - originColumn;
+            int row = clamp(bees.y[i] / cellSize, originRow, lastRow) - originRow;
+            int cell = row * columns + column;
+            counts[bees.state[i]][cell]++;
+            maxCount = Math.max(maxCount, ++totals[cell]);
+        }
+        rendered = false;
+    }
+
+    public synchronized void draw(Graphics g) {
+        if (!rendered) {
+            render();
+            rendered = true;
+        }
+        int left = originColumn * cellSize, top = originRow * cellSize;
+        g.drawImage(image, left, top, left + columns * cellSize, top + rows * cellSize, 0, 0, columns, rows, null);
+    }
+
+    // Reuses the image while the grid fits in it; only the top-left
+    // columns by rows are drawn.
+    private void render() {
+        if (image == null || image.getWidth() < columns || image.getHeight() < rows) {
+            int width = Math.max(columns, image == null ? 0 : image.getWidth());
+            int height = Math.max(rows, image == null ? 0 : image.getHeight());
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        }
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        int stride = image.getWidth();
+        double logMax = Math.log1p(maxCount);
+
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                int cell = row * columns + column;
+                int total = totals[cell];
+                if (total == 0) {
+                    pixels[row * stride + column] = 0;
+                    continue;
+                }
+
+                int red = 0, green = 0, blue = 0;
+                for (int state = 0; state < counts.length; state++) {
+                    int count = counts[state][cell];
+                    if (count == 0) continue;
+                    int color = STATE_COLORS[state];
+                    red += count * (color >> 16 & 0xFF);
+                    green += count * (color >> 8 & 0xFF);
+                    blue += count * (color & 0xFF);
+                }
+                int alpha = (int) (64 + 191 * Math.log1p(total) / logMax);
+                pixels[row * stride + column] = alpha << 24 | (red / total) << 16 | (green / total) << 8 | (blue / total);
+            }
+        }
+    }
+
+    // In world cells; zero outside the part of the world the grid covers.
+    public synchronized int getCount(Agent.State state, int column, int row) {
+        column -= originColumn;
+        row -= originRow;
+        if (column < 0 || column >= columns || row < 0 || row >= rows) return 0;
+        return counts[state.ordinal()][row * columns + column];
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.min(max, Math.max(min, value));
+    }
+}
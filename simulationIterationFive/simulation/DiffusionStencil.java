@@ -0,0 +1,32 @@
+package simulation;
+
+// The interior of one row of the pheromone update: each cell becomes
+// self * centre + side * (above + below + left + right). Implementations
+// must add the neighbours in that order, without fused multiply-adds, so
+// they all give the same field.
+abstract class DiffusionStencil {
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_STENCIL = "simulation.VectorDiffusionStencil";
+
+    static DiffusionStencil create() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            try {
+                return (DiffusionStencil) Class.forName(VECTOR_STENCIL).getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Fall back to the scalar stencil below.
+            }
+        }
+        return scalar();
+    }
+
+    static DiffusionStencil scalar() {
+        return new ScalarDiffusionStencil();
+    }
+
+    abstract String getName();
+
+    // Cells start to end of source, whose neighbours above and below are
+    // the given offsets away; an offset of 0 makes the cell its own neighbour.
+    abstract void diffuse(float[] source, float[] target, int start, int end, int above, int below,
+                          float self, float side);
+}
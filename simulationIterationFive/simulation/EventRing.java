@@ -0,0 +1,90 @@
+package simulation;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+final class EventRing {
+    private static final int WORDS = 2;
+
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final long[] words;
+    private final AtomicLong tail = new AtomicLong();
+    private long head = 0;
+
+    interface Reader {
+        void event(long header, long payload);
+    }
+
+    EventRing(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two");
+        }
+        mask = capacity - 1;
+        sequences = new AtomicLongArray(capacity);
+        words = new long[capacity * WORDS];
+        for (int slot = 0; slot < capacity; slot++) {
+            sequences.set(slot, slot);
+        }
+    }
+
+    boolean offer(long header, long payload) {
+        long position;
+        while (true) {
+            position = tail.get();
+            long difference = sequences.get((int) position & mask) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) break;
+            } else if (difference < 0) {
+                return false;
+            }
+        }
+
+        int slot = (int) position & mask;
+        words[slot * WORDS] = header;
+        words[slot * WORDS + 1] = payload;
+        sequences.lazySet(slot, position + 1);
+        return true;
+    }
+
+    // Claims consecutive slots for a message spanning several of them, so the
+    // reader never sees part of one that did not fit.
+    boolean offer(long[] message) {
+        int slots = message.length / WORDS;
+        if (slots > mask + 1) return false;
+
+        long position;
+        while (true) {
+            position = tail.get();
+            long last = position + slots - 1;
+            long difference = sequences.get((int) last & mask) - last;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + slots)) break;
+            } else if (difference < 0) {
+                return false;
+            }
+        }
+
+        for (int k = 0; k < slots; k++) {
+            int slot = (int) (position + k) & mask;
+            words[slot * WORDS] = message[k * WORDS];
+            words[slot * WORDS + 1] = message[k * WORDS + 1];
+            sequences.lazySet(slot, position + k + 1);
+        }
+        return true;
+    }
+
+    int drain(Reader reader, int limit) {
+        int read = 0;
+        while (read < limit) {
+            int slot = (int) head & mask;
+            if (sequences.get(slot) != head + 1) break;
+
+            reader.event(words[slot * WORDS], words[slot * WORDS + 1]);
+            sequences.lazySet(slot, head + mask + 1);
+            head++;
+            read++;
+        }
+        return read;
+    }
+}
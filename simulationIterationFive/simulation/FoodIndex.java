@@ -0,0 +1,104 @@
+package simulation;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class FoodIndex {
+    private final int cellSize;
+    private int columns = 1, rows = 1;
+    private int reach = 0;
+    private int[] cellStart = new int[2];
+    private int[] cellCount = new int[1];
+    private int[] order = new int[0];
+    private int[] cellOf = new int[0];
+
+    public FoodIndex(int cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    public void rebuild(List<FoodSource> foodSources, int width, int height) {
+        columns = Math.max(1, (width + cellSize - 1) / cellSize);
+        rows = Math.max(1, (height + cellSize - 1) / cellSize);
+        if (cellCount.length != columns * rows) {
+            cellStart = new int[columns * rows + 1];
+            cellCount = new int[columns * rows];
+        } else {
+            Arrays.fill(cellStart, 0);
+            Arrays.fill(cellCount, 0);
+        }
+
+        int count = foodSources.size();
+        if (order.length < count) {
+            order = new int[count];
+            cellOf = new int[count];
+        }
+
+        int maxRadius = 0;
+        for (int f = 0; f < count; f++) {
+            FoodSource food = foodSources.get(f);
+            cellOf[f] = row(food.getY()) * columns + column(food.getX());
+            if (!food.isDepleted()) {
+                cellStart[cellOf[f] + 1]++;
+                maxRadius = Math.max(maxRadius, food.getRadius());
+            }
+        }
+        reach = Agent.SIZE / 2 + maxRadius;
+
+        for (int cell = 0; cell < columns * rows; cell++) {
+            cellStart[cell + 1] += cellStart[cell];
+        }
+        for (int f = 0; f < count; f++) {
+            if (!foodSources.get(f).isDepleted()) {
+                int cell = cellOf[f];
+                order[cellStart[cell] + cellCount[cell]++] = f;
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(cellCount, 0);
+    }
+
+    public void remove(int source) {
+        int cell = cellOf[source];
+        int start = cellStart[cell], end = start + cellCount[cell];
+        for (int k = start; k < end; k++) {
+            if (order[k] == source) {
+                order[k] = order[end - 1];
+                cellCount[cell]--;
+                return;
+            }
+        }
+    }
+
+    public int getReach() {
+        return reach;
+    }
+
+    public int column(int x) {
+        return clamp(Math.floorDiv(x, cellSize), columns);
+    }
+
+    public int row(int y) {
+        return clamp(Math.floorDiv(y, cellSize), rows);
+    }
+
+    public int cellStart(int column, int row) {
+        return cellStart[row * columns + column];
+    }
+
+    public int cellEnd(int column, int row) {
+        int cell = row * columns + column;
+        return cellStart[cell] + cellCount[cell];
+    }
+
+    public int sourceAt(int position) {
+        return order[position];
+    }
+
+    private static int clamp(int value, int size) {
+        if (value < 0) return 0;
+        if (value >= size) return size - 1;
+        return value;
+    }
+}
@@ -0,0 +1,25 @@
+package simulation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("simulation.FoodLookup")
+@Label("Food Collision")
+@Category({"Bee Simulation", "Tick"})
+@Description("Food source and hive collision checks for one range of moving bees")
+@Enabled(false)
+@StackTrace(false)
+final class FoodLookupEvent extends jdk.jfr.Event {
+    @Label("Agents")
+    int agents;
+
+    @Label("Moving Agents")
+    int movingAgents;
+
+    @Label("Food Sources")
+    int foodSources;
+}
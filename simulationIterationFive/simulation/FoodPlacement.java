@@ -0,0 +1,182 @@
+package simulation;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+final class FoodPlacement {
+    static final int MARGIN = 10;
+    static final int SPACING = 30;
+    static final int HIVE_CLEARANCE = 50;
+    private static final int ATTEMPTS_PER_SOURCE = 30;
+    private static final int CELL_SIZE = 21;
+
+    private final SplittableRandom random;
+    private final int left, top, right, bottom;
+    private final int[] hiveX, hiveY, hiveClearanceSquared;
+    private final int columns, rows;
+    private final int[] cells;
+    private int[] x = new int[16], y = new int[16];
+    private int count = 0;
+
+    private FoodPlacement(SplittableRandom random, int width, int height, List<Hive> hives) {
+        this.random = random;
+        left = MARGIN;
+        top = MARGIN;
+        right = width - MARGIN;
+        bottom = height - MARGIN;
+        hiveX = new int[hives.size()];
+        hiveY = new int[hives.size()];
+        hiveClearanceSquared = new int[hives.size()];
+        for (int h = 0; h < hives.size(); h++) {
+            Hive hive = hives.get(h);
+            hiveX[h] = hive.getX();
+            hiveY[h] = hive.getY();
+            int clearance = hive.getRadius() + HIVE_CLEARANCE;
+            hiveClearanceSquared[h] = clearance * clearance;
+        }
+
+        columns = (right - left + CELL_SIZE - 1) / CELL_SIZE;
+        rows = (bottom - top + CELL_SIZE - 1) / CELL_SIZE;
+        cells = new int[Math.multiplyExact(columns, rows)];
+        Arrays.fill(cells, -1);
+    }
+
+    static int[] place(SplittableRandom random, int count, int width, int height, Hive hive) {
+        return place(random, count, width, height, List.of(hive));
+    }
+
+    static int[] place(SplittableRandom random, int count, int width, int height, List<Hive> hives) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Food source count must not be negative");
+        }
+        if (count == 0) return new int[0];
+        if (width <= 2 * MARGIN || height <= 2 * MARGIN) {
+            throw new IllegalArgumentException("World of " + width + "x" + height + " is too small for food sources");
+        }
+
+        long capacity = packingBound(width, height);
+        if (count > capacity) {
+            throw new IllegalArgumentException("Cannot place " + count + " food sources " + SPACING
+                    + " px apart in a " + width + "x" + height + " world; at most " + capacity + " fit");
+        }
+
+        FoodPlacement placement = new FoodPlacement(random, width, height, hives);
+        placement.throwDarts(count);
+        if (placement.count < count) {
+            placement.saturate(count);
+        }
+
+        int[] positions = new int[2 * count];
+        for (int f = 0; f < count; f++) {
+            positions[2 * f] = placement.x[f];
+            positions[2 * f + 1] = placement.y[f];
+        }
+        return positions;
+    }
+
+    static long packingBound(int width, int height) {
+        double spanX = width - 2 * MARGIN + SPACING;
+        double spanY = height - 2 * MARGIN + SPACING;
+        return (long) (spanX * spanY * 2 / (Math.sqrt(3) * SPACING * SPACING));
+    }
+
+    private void throwDarts(int target) {
+        long attempts = (long) target * ATTEMPTS_PER_SOURCE;
+        for (long attempt = 0; attempt < attempts && count < target; attempt++) {
+            int candidateX = random.nextInt(right - left) + left;
+            int candidateY = random.nextInt(bottom - top) + top;
+            if (accepts(candidateX, candidateY)) {
+                add(candidateX, candidateY);
+            }
+        }
+    }
+
+    private void saturate(int target) {
+        int placed = count;
+        int[] active = new int[Math.max(16, count)];
+        int activeCount = 0;
+        for (int f = 0; f < count; f++) {
+            active[activeCount++] = f;
+        }
+        if (activeCount == 0) {
+            for (int attempt = 0; attempt < ATTEMPTS_PER_SOURCE && count == 0; attempt++) {
+                int candidateX = random.nextInt(right - left) + left;
+                int candidateY = random.nextInt(bottom - top) + top;
+                if (accepts(candidateX, candidateY)) add(candidateX, candidateY);
+            }
+            if (count > 0) active[activeCount++] = 0;
+        }
+
+        while (activeCount > 0) {
+            int slot = random.nextInt(activeCount);
+            int source = active[slot];
+            boolean found = false;
+
+            for (int attempt = 0; attempt < ATTEMPTS_PER_SOURCE; attempt++) {
+                double angle = random.nextDouble() * 2 * Math.PI;
+                double distance = SPACING * (1 + random.nextDouble());
+                int candidateX = (int) Math.round(x[source] + distance * Math.cos(angle));
+                int candidateY = (int) Math.round(y[source] + distance * Math.sin(angle));
+                if (candidateX < left || candidateX >= right || candidateY < top || candidateY >= bottom) continue;
+
+                if (accepts(candidateX, candidateY)) {
+                    add(candidateX, candidateY);
+                    if (activeCount == active.length) active = Arrays.copyOf(active, activeCount * 2);
+                    active[activeCount++] = count - 1;
+                    found = true;
+                    break;
+                }
+            }
+
+            if (!found) {
+                active[slot] = active[--activeCount];
+            }
+        }
+
+        if (count < target) {
+            throw new IllegalArgumentException("Only " + count + " food sources fit " + SPACING
+                    + " px apart in a " + (right + MARGIN) + "x" + (bottom + MARGIN) + " world, " + target + " requested");
+        }
+
+        for (int f = placed; f < target; f++) {
+            int pick = f + random.nextInt(count - f);
+            int swapX = x[f], swapY = y[f];
+            x[f] = x[pick];
+            y[f] = y[pick];
+            x[pick] = swapX;
+            y[pick] = swapY;
+        }
+        count = target;
+    }
+
+    private boolean accepts(int candidateX, int candidateY) {
+        for (int h = 0; h < hiveX.length; h++) {
+            long hiveOffsetX = candidateX - hiveX[h], hiveOffsetY = candidateY - hiveY[h];
+            if (hiveOffsetX * hiveOffsetX + hiveOffsetY * hiveOffsetY < hiveClearanceSquared[h]) return false;
+        }
+
+        int column = (candidateX - left) / CELL_SIZE, row = (candidateY - top) / CELL_SIZE;
+        for (int r = Math.max(0, row - 2); r <= Math.min(rows - 1, row + 2); r++) {
+            for (int c = Math.max(0, column - 2); c <= Math.min(columns - 1, column + 2); c++) {
+                int other = cells[r * columns + c];
+                if (other == -1) continue;
+
+                int offsetX = candidateX - x[other], offsetY = candidateY - y[other];
+                if (offsetX * offsetX + offsetY * offsetY < SPACING * SPACING) return false;
+            }
+        }
+        return true;
+    }
+
+    private void add(int pointX, int pointY) {
+        if (count == x.length) {
+            x = Arrays.copyOf(x, count * 2);
+            y = Arrays.copyOf(y, count * 2);
+        }
+        x[count] = pointX;
+        y[count] = pointY;
+        cells[(pointY - top) / CELL_SIZE * columns + (pointX - left) / CELL_SIZE] = count;
+        count++;
+    }
+}
@@ -1,13 +1,34 @@
 package simulation;
 
 import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.SplittableRandom;
 
 public class FoodSource {
+    private static final Font LABEL_FONT = new Font("Arial", Font.BOLD, 12);
+    private static final FontMetrics LABEL_METRICS = SpriteAtlas.metrics(LABEL_FONT);
+
     private int x, y;
     private int radius;
     private int quantity;
     private String label; 
     private Color color;  
+    private BufferedImage sprite;
+    private int spriteQuantity;
+    private int spriteLeft, spriteTop;
+
+    // Replaces 'into' with 'count' fresh sources placed for the run's seed.
+    static void placeAll(List<FoodSource> into, long seed, int count, int width, int height, List<Hive> hives) {
+        SplittableRandom random = new SplittableRandom(RandomStreams.streamSeed(seed, -1));
+        int[] positions = FoodPlacement.place(random, count, width, height, hives);
+
+        into.clear();
+        for (int foodID = 0; foodID < count; foodID++) {
+            into.add(new FoodSource(positions[2 * foodID], positions[2 * foodID + 1], 10, 50,
+                    "FS" + (foodID + 1), SimulationEngine.foodColor(foodID)));
+        }
+    }
 
     public FoodSource(int x, int y, int radius, int initialQuantity, String label, Color color) { 
         this.x = x;
@@ -36,27 +57,53 @@ public class FoodSource {
     public int getX() { return x; }
     public int getY() { return y; }
     public int getRadius() { return radius; }
+    public String getLabel() { return label; }
+    public Color getColor() { return color; }
 
     public void draw(Graphics g) {
-    	g.setColor(color);
-        g.fillOval(x - radius, y - radius, 2 * radius, 2 * radius);
-        
-        g.setFont(new Font("Arial", Font.BOLD, 12));
-        
+        draw(g, quantity);
+    }
+
+    public void draw(Graphics g, int quantity) {
+        if (sprite == null || spriteQuantity != quantity) {
+            renderSprite(quantity);
+        }
+        g.drawImage(sprite, x + spriteLeft, y + spriteTop, null);
+    }
+
+    private void renderSprite(int quantity) {
+        String foodText = String.valueOf(quantity);
+        int textWidth = LABEL_METRICS.stringWidth(foodText);
+        int textHeight = LABEL_METRICS.getHeight();
+        int textX = -textWidth / 2, textY = textHeight / 4;
+        int labelX = -10, labelY = -10;
+
+        int left = Math.min(-radius, Math.min(textX, labelX));
+        int top = Math.min(-radius, labelY - LABEL_METRICS.getAscent());
+        int right = Math.max(radius, Math.max(textX + textWidth, labelX + LABEL_METRICS.stringWidth(label)));
+        int bottom = Math.max(radius, textY + LABEL_METRICS.getDescent());
+
+        sprite = SpriteAtlas.createImage(right - left + 1, bottom - top + 1);
+        Graphics2D g = sprite.createGraphics();
+        g.translate(-left, -top);
+
+        g.setColor(color);
+        g.fillOval(-radius, -radius, 2 * radius, 2 * radius);
+        g.setFont(LABEL_FONT);
+
         if (color.equals(Color.BLACK) || color.equals(Color.BLUE)) {
             g.setColor(Color.WHITE);
         } else {
             g.setColor(Color.BLACK);
         }
-
-        String foodText = String.valueOf(quantity);
-        FontMetrics metrics = g.getFontMetrics();
-        int textWidth = metrics.stringWidth(foodText);
-        int textHeight = metrics.getHeight();
-        
-        g.drawString(foodText, x - textWidth / 2, y + textHeight / 4);
+        g.drawString(foodText, textX, textY);
 
         g.setColor(Color.WHITE);
-        g.drawString(label, x - 10, y - 10); 
+        g.drawString(label, labelX, labelY);
+        g.dispose();
+
+        spriteLeft = left;
+        spriteTop = top;
+        spriteQuantity = quantity;
     }
 }
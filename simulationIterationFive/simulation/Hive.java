@@ -1,51 +1,38 @@
 package simulation;
 
-import visualisation.FoodCollectionGraph;
-import visualisation.FoodDepletionGraph;
-import visualisation.TotalFoodGraph;
+import metrics.Counter;
+import metrics.MetricsRegistry;
+
 import java.awt.*;
-import java.util.List;
+import java.awt.image.BufferedImage;
 
 public class Hive {
+    private static final Font LABEL_FONT = new Font("Arial", Font.BOLD, 16);
+    private static final FontMetrics LABEL_METRICS = SpriteAtlas.metrics(LABEL_FONT);
+    private static final Counter DEPOSITS = MetricsRegistry.DEFAULT.counter(
+            "bee_hive_deposits_total", "Deliveries of food into a hive");
+    private static final Counter FOOD_DEPOSITED = MetricsRegistry.DEFAULT.counter(
+            "bee_hive_food_deposited_total", "Units of food delivered into a hive");
+
     private int x, y, radius;
     private int storedFood = 0;
     private int timeElapsed = 0;
-    private FoodCollectionGraph foodGraph;
-    private TotalFoodGraph totalFoodGraph;
-    private FoodDepletionGraph foodDepletionGraph;
+    private BufferedImage label;
+    private int labelFood;
 
 
-    public Hive(int x, int y, int radius, FoodDepletionGraph foodDepletionGraph) {
+    public Hive(int x, int y, int radius) {
         this.x = x;
         this.y = y;
         this.radius = radius;
-        this.foodDepletionGraph = foodDepletionGraph;
-    }
-
-    public void setGraphs(TotalFoodGraph totalFoodGraph) {
-        this.totalFoodGraph = totalFoodGraph;
     }
 
     public void depositFood(int amount) {
         storedFood += amount;
-        incrementTime();
-
-        if (totalFoodGraph != null) {
-        	totalFoodGraph.updateGraph(timeElapsed, storedFood);
-        }
+        DEPOSITS.increment();
+        FOOD_DEPOSITED.add(amount);
     }
-    
-    public FoodDepletionGraph getFoodDepletionGraph() {
-        return foodDepletionGraph;
-    }
-    
-    public void updateFoodGraph(List<FoodSource> foodSources) {
-        List<Integer> currentQuantities = foodSources.stream()
-                .map(FoodSource::getQuantity)
-                .toList(); 
-        foodDepletionGraph.updateGraph(currentQuantities);
-    }
-   
+
 
     public void incrementTime() {
         timeElapsed++;
@@ -64,15 +51,44 @@ public class Hive {
         return storedFood;
     }
 
+    public int getTimeElapsed() {
+        return timeElapsed;
+    }
+
+    void restore(int x, int y, int radius, int storedFood, int timeElapsed) {
+        this.x = x;
+        this.y = y;
+        this.radius = radius;
+        this.storedFood = storedFood;
+        this.timeElapsed = timeElapsed;
+        label = null;
+    }
+
     public void draw(Graphics g) {
+        draw(g, storedFood);
+    }
+
+    public void draw(Graphics g, int storedFood) {
         g.setColor(Color.RED);
         g.fillOval(x - radius, y - radius, radius * 2, radius * 2);
 
-        g.setColor(Color.BLACK);
-        g.setFont(new Font("Arial", Font.BOLD, 16));
+        if (label == null || labelFood != storedFood) {
+            renderLabel(storedFood);
+        }
+        g.drawImage(label, x - label.getWidth() / 2, y - radius - 10 - LABEL_METRICS.getAscent(), null);
+    }
+
+    private void renderLabel(int storedFood) {
         String foodText = "Food: " + storedFood;
-        int textWidth = g.getFontMetrics().stringWidth(foodText);
-        g.drawString(foodText, x - textWidth / 2, y - radius - 10);
+        int textWidth = LABEL_METRICS.stringWidth(foodText);
+
+        label = SpriteAtlas.createImage(textWidth, LABEL_METRICS.getHeight());
+        Graphics2D g = label.createGraphics();
+        g.setColor(Color.BLACK);
+        g.setFont(LABEL_FONT);
+        g.drawString(foodText, 0, LABEL_METRICS.getAscent());
+        g.dispose();
+        labelFood = storedFood;
     }
 
     public int getX() { return x; }
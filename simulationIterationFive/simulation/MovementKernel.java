@@ -0,0 +1,38 @@
+package simulation;
+
+// Batched steering for SEARCHING and RETURNING bees over a contiguous index
+// range. Implementations must match Agent.move bit for bit.
+public abstract class MovementKernel {
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_KERNEL = "simulation.VectorMovementKernel";
+
+    public static MovementKernel create() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            try {
+                return (MovementKernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Fall back to the scalar kernel below.
+            }
+        }
+        return scalar();
+    }
+
+    public static MovementKernel scalar() {
+        return new ScalarMovementKernel();
+    }
+
+    public abstract String getName();
+
+    // Applies collision avoidance to searching bees and points returning bees
+    // at the hive, then advances both by their velocity.
+    abstract void steer(AgentPopulation previous, AgentPopulation bees, int from, int to,
+                        Agent agent, SpatialGrid grid);
+
+    // Bounces searching bees that are still moving freely off the walls.
+    abstract void bounce(AgentPopulation previous, AgentPopulation bees, int from, int to,
+                         Agent agent, int width, int height);
+
+    static boolean isBouncing(AgentPopulation previous, AgentPopulation bees, int i) {
+        return previous.state[i] == Agent.SEARCHING && bees.state[i] == Agent.SEARCHING && bees.pendingFood[i] == -1;
+    }
+}
@@ -0,0 +1,23 @@
+package simulation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("simulation.Paint")
+@Label("Paint")
+@Category({"Bee Simulation", "Rendering"})
+@Enabled(false)
+@StackTrace(false)
+final class PaintEvent extends jdk.jfr.Event {
+    @Label("Agents")
+    int agents;
+
+    @Label("Density Map")
+    boolean densityMap;
+
+    @Label("Tick")
+    long tick;
+}
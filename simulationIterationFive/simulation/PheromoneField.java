@@ -0,0 +1,200 @@
+package simulation;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// A trail layer over the world, one float per cell. Deposits land in the
+// current buffer; update() diffuses and evaporates it into the other buffer
+// and swaps them. Every cell is computed from the old buffer only, so the
+// result is the same however the update is split across threads.
+public final class PheromoneField {
+    // A tile's three rows of 256 floats in each buffer stay well inside L1.
+    private static final int TILE_ROWS = 64, TILE_COLUMNS = 256;
+    private static final int ROWS_PER_TASK = 4 * TILE_ROWS;
+
+    private final int cellSize;
+    private final int columns, rows;
+    private final float self, side;
+    private final double diffusion, evaporation, attraction;
+    private final DiffusionStencil stencil;
+    private float[] current, next;
+
+    public PheromoneField(int worldWidth, int worldHeight, int cellSize, double diffusion, double evaporation,
+                          double attraction) {
+        this(worldWidth, worldHeight, cellSize, diffusion, evaporation, attraction, DiffusionStencil.create());
+    }
+
+    PheromoneField(int worldWidth, int worldHeight, int cellSize, double diffusion, double evaporation,
+                   double attraction, DiffusionStencil stencil) {
+        if (cellSize < 1) {
+            throw new IllegalArgumentException("Cell size must be at least 1");
+        }
+        if (diffusion < 0 || diffusion > 0.25) {
+            throw new IllegalArgumentException("Diffusion must be between 0 and 0.25");
+        }
+        if (evaporation < 0 || evaporation > 1) {
+            throw new IllegalArgumentException("Evaporation must be between 0 and 1");
+        }
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (worldWidth + cellSize - 1) / cellSize);
+        this.rows = Math.max(1, (worldHeight + cellSize - 1) / cellSize);
+        // Each cell keeps its share after spreading to its four neighbours,
+        // then loses the evaporated fraction.
+        this.self = (float) ((1 - evaporation) * (1 - 4 * diffusion));
+        this.side = (float) ((1 - evaporation) * diffusion);
+        this.diffusion = diffusion;
+        this.evaporation = evaporation;
+        this.attraction = attraction;
+        this.stencil = stencil;
+        current = new float[Math.multiplyExact(columns, rows)];
+        next = new float[current.length];
+    }
+
+    public static PheromoneField forWorld(int worldWidth, int worldHeight) {
+        return new PheromoneField(worldWidth, worldHeight, 4, 0.1, 0.01, 2.0);
+    }
+
+    public void deposit(int x, int y, float amount) {
+        current[cell(x, y)] += amount;
+    }
+
+    public float get(int x, int y) {
+        return current[cell(x, y)];
+    }
+
+    // Central differences, one cell either side, clamped at the edges.
+    public float gradientX(int x, int y) {
+        int column = column(x), row = row(y);
+        int base = row * columns;
+        return (current[base + Math.min(columns - 1, column + 1)] - current[base + Math.max(0, column - 1)]) * 0.5f;
+    }
+
+    public float gradientY(int x, int y) {
+        int column = column(x), row = row(y);
+        return (current[Math.min(rows - 1, row + 1) * columns + column]
+                - current[Math.max(0, row - 1) * columns + column]) * 0.5f;
+    }
+
+    double getDiffusion() {
+        return diffusion;
+    }
+
+    double getEvaporation() {
+        return evaporation;
+    }
+
+    double getAttraction() {
+        return attraction;
+    }
+
+    // The live buffer, which checkpoints write and read in place.
+    float[] cells() {
+        return current;
+    }
+
+    public void update() {
+        update(null);
+    }
+
+    public void update(ForkJoinPool pool) {
+        if (pool == null || rows <= ROWS_PER_TASK) {
+            diffuse(0, rows);
+        } else {
+            pool.invoke(new DiffuseTask(0, rows));
+        }
+        float[] previous = current;
+        current = next;
+        next = previous;
+    }
+
+    public void clear() {
+        Arrays.fill(current, 0);
+    }
+
+    private void diffuse(int fromRow, int toRow) {
+        for (int tileRow = fromRow; tileRow < toRow; tileRow += TILE_ROWS) {
+            int tileEnd = Math.min(toRow, tileRow + TILE_ROWS);
+            for (int tileColumn = 0; tileColumn < columns; tileColumn += TILE_COLUMNS) {
+                int columnEnd = Math.min(columns, tileColumn + TILE_COLUMNS);
+                for (int row = tileRow; row < tileEnd; row++) {
+                    diffuseRow(row, tileColumn, columnEnd);
+                }
+            }
+        }
+    }
+
+    // Walls reflect: a missing neighbour counts as the cell itself, so no
+    // pheromone leaks out of the world.
+    private void diffuseRow(int row, int from, int to) {
+        int base = row * columns;
+        int above = row == 0 ? 0 : -columns;
+        int below = row == rows - 1 ? 0 : columns;
+        if (columns == 1) {
+            next[base] = self * current[base] + side * (current[base + above] + current[base + below]
+                    + current[base] + current[base]);
+            return;
+        }
+
+        int start = Math.max(from, 1), end = Math.min(to, columns - 1);
+        if (from == 0) {
+            next[base] = self * current[base] + side * (current[base + above] + current[base + below]
+                    + current[base] + current[base + 1]);
+        }
+        if (start < end) {
+            stencil.diffuse(current, next, base + start, base + end, above, below, self, side);
+        }
+        if (to == columns) {
+            int last = base + columns - 1;
+            next[last] = self * current[last] + side * (current[last + above] + current[last + below]
+                    + current[last - 1] + current[last]);
+        }
+    }
+
+    private int cell(int x, int y) {
+        return row(y) * columns + column(x);
+    }
+
+    private int column(int x) {
+        return Math.min(columns - 1, Math.max(0, x / cellSize));
+    }
+
+    private int row(int y) {
+        return Math.min(rows - 1, Math.max(0, y / cellSize));
+    }
+
+    String getStencilName() {
+        return stencil.getName();
+    }
+
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    private class DiffuseTask extends RecursiveAction {
+        private final int from, to;
+
+        DiffuseTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= ROWS_PER_TASK) {
+                diffuse(from, to);
+            } else {
+                int middle = (from + to) >>> 1 & -TILE_ROWS;
+                invokeAll(new DiffuseTask(from, middle), new DiffuseTask(middle, to));
+            }
+        }
+    }
+}
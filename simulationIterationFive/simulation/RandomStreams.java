@@ -0,0 +1,27 @@
+package simulation;
+
+final class RandomStreams {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private RandomStreams() {}
+
+    static long streamSeed(long masterSeed, long stream) {
+        return mix64(masterSeed + (stream + 1) * GOLDEN_GAMMA);
+    }
+
+    static double nextDouble(long[] states, int i) {
+        long state = states[i] + GOLDEN_GAMMA;
+        states[i] = state;
+        return (mix64(state) >>> 11) * 0x1.0p-53;
+    }
+
+    static int nextInt(long[] states, int i, int bound) {
+        return (int) (nextDouble(states, i) * bound);
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
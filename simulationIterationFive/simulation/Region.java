@@ -0,0 +1,213 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// One vertical strip of a ColonySimulation. Within a phase only the worker
+// running this region writes its bees; other regions hand it migrating bees
+// and food claims through its lock-free queues, and read its border bands
+// while it moves. Batches from several senders are applied in sender order,
+// so runs do not depend on thread timing.
+final class Region {
+    final int index, left, right;
+    final Queue<Batch> arrivals = new ConcurrentLinkedQueue<>();
+    final Queue<Claims> claims = new ConcurrentLinkedQueue<>();
+
+    private AgentPopulation bees = new AgentPopulation();
+    private AgentPopulation next = new AgentPopulation();
+    private final AgentPopulation leftBorder = new AgentPopulation();
+    private final AgentPopulation rightBorder = new AgentPopulation();
+    private final SpatialGrid grid = new SpatialGrid(30);
+    private final Batch[] departures;
+    private final Claims[] outgoingClaims;
+    private final List<Batch> received = new ArrayList<>();
+    private final List<Claims> receivedClaims = new ArrayList<>();
+    private int[] depositColony = new int[16], depositAmount = new int[16];
+    private int depositCount;
+    private int[] depleted = new int[4];
+    private int depletedCount;
+
+    static final class Batch {
+        final int source;
+        final AgentPopulation bees = new AgentPopulation();
+
+        Batch(int source) {
+            this.source = source;
+        }
+    }
+
+    static final class Claims {
+        final int source;
+        int[] agents = new int[16], foods = new int[16];
+        int size;
+
+        Claims(int source) {
+            this.source = source;
+        }
+
+        void add(int agent, int food) {
+            if (size == agents.length) {
+                agents = Arrays.copyOf(agents, size * 2);
+                foods = Arrays.copyOf(foods, size * 2);
+            }
+            agents[size] = agent;
+            foods[size] = food;
+            size++;
+        }
+    }
+
+    Region(int index, int regionCount, int left, int right) {
+        this.index = index;
+        this.left = left;
+        this.right = right;
+        departures = new Batch[regionCount];
+        outgoingClaims = new Claims[regionCount];
+        for (int r = 0; r < regionCount; r++) {
+            departures[r] = new Batch(index);
+            outgoingClaims[r] = new Claims(index);
+        }
+    }
+
+    AgentPopulation getBees() {
+        return bees;
+    }
+
+    void clear() {
+        bees.clear();
+        next.clear();
+        arrivals.clear();
+        claims.clear();
+    }
+
+    // Phase 1: publish the bees near each edge as ghosts for the neighbours.
+    void publishBorders(int avoidRadius) {
+        bees.appendBorders(left, right, avoidRadius, leftBorder, rightBorder);
+    }
+
+    // Phase 2: move every bee, seeing the neighbours' border bees as ghosts.
+    // Food claims go to the region owning the food; deposits are kept until
+    // the hives are updated in region order.
+    void move(ColonySimulation world) {
+        int count = bees.size();
+        Region before = world.region(index - 1), after = world.region(index + 1);
+        if (before != null) {
+            for (int k = 0; k < before.rightBorder.size(); k++) bees.append(before.rightBorder, k);
+        }
+        if (after != null) {
+            for (int k = 0; k < after.leftBorder.size(); k++) bees.append(after.leftBorder, k);
+        }
+
+        int avoidRadius = world.getParameters().getAvoidRadius();
+        int width = world.getWorldWidth(), height = world.getWorldHeight();
+        grid.rebuild(bees, left - avoidRadius, right - left + 2 * avoidRadius, height);
+
+        Agent[] agents = world.agents();
+        List<FoodSource> foodSources = world.getFoodSources();
+        FoodIndex foodIndex = world.getFoodIndex();
+        next.resize(count);
+        for (int i = 0; i < count; i++) {
+            agents[bees.colony[i]].move(bees, next, i, width, height, grid, foodSources, foodIndex);
+        }
+        bees.resize(count);
+
+        for (Claims outgoing : outgoingClaims) outgoing.size = 0;
+        depositCount = 0;
+        for (int i = 0; i < count; i++) {
+            int food = next.pendingFood[i];
+            if (food != -1) {
+                outgoingClaims[world.regionOf(foodSources.get(food).getX())].add(i, food);
+            }
+            if (next.pendingDeposit[i] > 0) {
+                addDeposit(next.colony[i], next.pendingDeposit[i]);
+                next.pendingDeposit[i] = 0;
+            }
+        }
+        for (int r = 0; r < outgoingClaims.length; r++) {
+            if (outgoingClaims[r].size > 0) world.region(r).claims.add(outgoingClaims[r]);
+        }
+    }
+
+    // Phase 3: settle the claims on food this region owns, whoever made them.
+    void settleClaims(ColonySimulation world) {
+        receivedClaims.clear();
+        Claims batch;
+        while ((batch = claims.poll()) != null) receivedClaims.add(batch);
+        receivedClaims.sort((a, b) -> Integer.compare(a.source, b.source));
+
+        Agent[] agents = world.agents();
+        List<FoodSource> foodSources = world.getFoodSources();
+        SimulationEventBus events = world.getEvents();
+        depletedCount = 0;
+        for (Claims claimed : receivedClaims) {
+            AgentPopulation claimants = world.region(claimed.source).next;
+            for (int k = 0; k < claimed.size; k++) {
+                int i = claimed.agents[k], source = claimed.foods[k];
+                FoodSource food = foodSources.get(source);
+                boolean wasDepleted = food.isDepleted();
+                agents[claimants.colony[i]].startCollecting(claimants, i, source, food, events);
+                claimants.pendingFood[i] = -1;
+                if (!wasDepleted && food.isDepleted()) addDepleted(source);
+            }
+        }
+    }
+
+    // Runs on the coordinating thread between phases 3 and 4.
+    void applyDeposits(List<Hive> hives, FoodIndex foodIndex) {
+        for (int d = 0; d < depositCount; d++) {
+            hives.get(depositColony[d]).depositFood(depositAmount[d]);
+        }
+        for (int d = 0; d < depletedCount; d++) {
+            foodIndex.remove(depleted[d]);
+        }
+    }
+
+    // Phase 4: hand bees that left the strip to their new region.
+    void depart(ColonySimulation world) {
+        for (Batch departure : departures) departure.bees.clear();
+        for (int i = 0; i < next.size(); ) {
+            int destination = world.regionOf(next.x[i]);
+            if (destination == index) {
+                i++;
+            } else {
+                departures[destination].bees.append(next, i);
+                next.swapRemove(i);
+            }
+        }
+        for (int r = 0; r < departures.length; r++) {
+            if (departures[r].bees.size() > 0) world.region(r).arrivals.add(departures[r]);
+        }
+
+        AgentPopulation previous = bees;
+        bees = next;
+        next = previous;
+    }
+
+    // Phase 5: take in the bees that crossed into this strip.
+    void arrive() {
+        received.clear();
+        Batch batch;
+        while ((batch = arrivals.poll()) != null) received.add(batch);
+        received.sort((a, b) -> Integer.compare(a.source, b.source));
+        for (Batch arrived : received) {
+            for (int k = 0; k < arrived.bees.size(); k++) bees.append(arrived.bees, k);
+        }
+    }
+
+    private void addDeposit(int colony, int amount) {
+        if (depositCount == depositColony.length) {
+            depositColony = Arrays.copyOf(depositColony, depositCount * 2);
+            depositAmount = Arrays.copyOf(depositAmount, depositCount * 2);
+        }
+        depositColony[depositCount] = colony;
+        depositAmount[depositCount] = amount;
+        depositCount++;
+    }
+
+    private void addDepleted(int source) {
+        if (depletedCount == depleted.length) depleted = Arrays.copyOf(depleted, depletedCount * 2);
+        depleted[depletedCount++] = source;
+    }
+}
@@ -0,0 +1,19 @@
+package simulation;
+
+class ScalarDiffusionStencil extends DiffusionStencil {
+    @Override
+    String getName() {
+        return "scalar";
+    }
+
+    @Override
+    void diffuse(float[] source, float[] target, int start, int end, int above, int below, float self, float side) {
+        for (int k = start; k < end; k++) {
+            target[k] = cell(source, k, above, below, self, side);
+        }
+    }
+
+    static float cell(float[] source, int k, int above, int below, float self, float side) {
+        return self * source[k] + side * (source[k + above] + source[k + below] + source[k - 1] + source[k + 1]);
+    }
+}
@@ -0,0 +1,40 @@
+package simulation;
+
+class ScalarMovementKernel extends MovementKernel {
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+
+    @Override
+    void steer(AgentPopulation previous, AgentPopulation bees, int from, int to, Agent agent, SpatialGrid grid) {
+        for (int i = from; i < to; i++) {
+            steer(previous, bees, i, agent, grid);
+        }
+    }
+
+    @Override
+    void bounce(AgentPopulation previous, AgentPopulation bees, int from, int to, Agent agent, int width, int height) {
+        for (int i = from; i < to; i++) {
+            bounce(previous, bees, i, agent, width, height);
+        }
+    }
+
+    static void steer(AgentPopulation previous, AgentPopulation bees, int i, Agent agent, SpatialGrid grid) {
+        if (previous.state[i] == Agent.SEARCHING) {
+            agent.avoidCollision(previous, bees, i, grid);
+            bees.x[i] += bees.dx[i];
+            bees.y[i] += bees.dy[i];
+            bees.searchTimer[i]--;
+        } else if (previous.state[i] == Agent.RETURNING) {
+            agent.moveTowardHive(bees, i);
+        }
+    }
+
+    static void bounce(AgentPopulation previous, AgentPopulation bees, int i, Agent agent, int width, int height) {
+        if (isBouncing(previous, bees, i)) {
+            agent.checkWallCollision(bees, i, width, height);
+            agent.normalizeVelocity(bees, i);
+        }
+    }
+}
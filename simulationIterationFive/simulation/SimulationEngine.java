@@ -0,0 +1,419 @@
+package simulation;
+
+import metrics.Counter;
+import metrics.Histogram;
+import metrics.MetricsRegistry;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class SimulationEngine {
+    public static final int TICKS_PER_SECOND = 60;
+    private static final int AGENTS_PER_TASK = 2048;
+    private static final float TRAIL_PER_TICK = 1f;
+    private static final Counter TICKS = MetricsRegistry.DEFAULT.counter(
+            "bee_ticks_total", "Simulation ticks run");
+    private static final Histogram TICK_DURATION = MetricsRegistry.DEFAULT.histogram(
+            "bee_tick_duration_seconds", "Time taken by one simulation tick");
+
+    private static final float GOLDEN_RATIO_CONJUGATE = 0.618034f;
+
+    private static final Color[] FOOD_COLORS = {
+        Color.BLUE, Color.RED, Color.ORANGE, Color.MAGENTA,
+        Color.CYAN, Color.YELLOW, Color.PINK, Color.GRAY,
+        Color.LIGHT_GRAY, Color.BLACK
+    };
+
+    private AgentPopulation agents = new AgentPopulation();
+    private AgentPopulation nextAgents = new AgentPopulation();
+    private final List<FoodSource> foodSources = new ArrayList<>();
+    private final SpatialGrid grid = new SpatialGrid(30);
+    private final FoodIndex foodIndex = new FoodIndex(30);
+    private final AgentScheduler scheduler = new AgentScheduler();
+    private boolean scheduled = false;
+    private boolean gridCurrent = false;
+    private MovementKernel kernel;
+    private PheromoneField pheromones;
+    private final List<SimulationListener> listeners = new CopyOnWriteArrayList<>();
+    private final SimulationEventBus events = new SimulationEventBus();
+    private AgentParameters parameters = AgentParameters.DEFAULTS;
+    private Agent agent;
+    private Hive hive;
+    private int worldWidth, worldHeight;
+    private long tickCount = 0;
+    private long foodVersion = 0;
+    private long seed;
+    private int parallelism = 1;
+    private ForkJoinPool pool;
+
+    public SimulationEngine(int worldWidth, int worldHeight, Hive hive) {
+        this(worldWidth, worldHeight, hive, new SplittableRandom().nextLong());
+    }
+
+    public SimulationEngine(int worldWidth, int worldHeight, Hive hive, long seed) {
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        this.seed = seed;
+        setHive(hive);
+    }
+
+    public void addListener(SimulationListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(SimulationListener listener) {
+        listeners.remove(listener);
+    }
+
+    public SimulationEventBus getEvents() {
+        return events;
+    }
+
+    public void tick() {
+        long start = System.nanoTime();
+        int count = agents.size();
+        if (!scheduled) {
+            scheduler.rebuild(agents, nextAgents, tickCount);
+            scheduled = true;
+        }
+        scheduler.wake(agents, tickCount);
+        grid.rebuild(agents, worldWidth, worldHeight);
+        gridCurrent = true;
+
+        if (pool == null || count <= AGENTS_PER_TASK) {
+            moveRange(0, count);
+        } else {
+            pool.invoke(new MoveTask(0, count));
+        }
+
+        StateTransitionEvent transitions = new StateTransitionEvent();
+        transitions.begin();
+        int active = scheduler.getActiveCount(), parked = 0;
+        events.setTick(tickCount);
+        for (int i = scheduler.nextActive(0, count); i < count; i = scheduler.nextActive(i + 1, count)) {
+            int emptied = agent.resolvePending(nextAgents, i, foodSources, foodIndex, events);
+            if (emptied != -1) {
+                for (SimulationListener listener : listeners) listener.foodSourceDepleted(this, emptied);
+            }
+            if (pheromones != null && nextAgents.state[i] == Agent.RETURNING) {
+                pheromones.deposit(nextAgents.x[i], nextAgents.y[i], TRAIL_PER_TICK);
+            }
+            if (scheduler.park(nextAgents, i, tickCount + 1)) {
+                agents.copyAgent(nextAgents, i);
+                parked++;
+            }
+        }
+        events.publishBacklog();
+        if (transitions.shouldCommit()) {
+            transitions.agents = count;
+            transitions.activeAgents = active;
+            transitions.parkedAgents = parked;
+            transitions.tick = tickCount;
+            transitions.commit();
+        }
+
+        if (pheromones != null) pheromones.update(pool);
+
+        AgentPopulation previous = agents;
+        agents = nextAgents;
+        nextAgents = previous;
+        tickCount++;
+
+        for (SimulationListener listener : listeners) listener.ticked(this);
+
+        if (tickCount % TICKS_PER_SECOND == 0) {
+            hive.incrementTime();
+            int seconds = getSecondsElapsed();
+            events.setTick(tickCount);
+            events.publishSecond(seconds);
+            for (SimulationListener listener : listeners) listener.secondElapsed(this, seconds);
+        }
+
+        TICKS.increment();
+        TICK_DURATION.observeNanos(System.nanoTime() - start);
+    }
+
+    private void moveRange(int from, int to) {
+        AvoidCollisionEvent steering = new AvoidCollisionEvent();
+        steering.begin();
+        if (kernel == null) {
+            for (int i = scheduler.nextActive(from, to); i < to; i = scheduler.nextActive(i + 1, to)) {
+                agent.move(agents, nextAgents, i, worldWidth, worldHeight, grid, foodSources, foodIndex, pheromones);
+            }
+            commit(steering, from, to);
+            return;
+        }
+
+        int moving = 0;
+        for (int i = scheduler.nextActive(from, to); i < to; i = scheduler.nextActive(i + 1, to)) {
+            if (Agent.isMoving(agents.state[i])) {
+                nextAgents.copyAgent(agents, i);
+                if (pheromones != null && agents.state[i] == Agent.SEARCHING) {
+                    agent.followPheromones(nextAgents, i, pheromones);
+                }
+                moving++;
+            } else {
+                agent.move(agents, nextAgents, i, worldWidth, worldHeight, grid, foodSources, foodIndex);
+            }
+        }
+        kernel.steer(agents, nextAgents, from, to, agent, grid);
+        commit(steering, from, to);
+
+        FoodLookupEvent lookup = new FoodLookupEvent();
+        lookup.begin();
+        for (int i = scheduler.nextActive(from, to); i < to; i = scheduler.nextActive(i + 1, to)) {
+            if (Agent.isMoving(agents.state[i])) agent.settle(nextAgents, i, foodSources, foodIndex);
+        }
+        if (lookup.shouldCommit()) {
+            lookup.agents = to - from;
+            lookup.movingAgents = moving;
+            lookup.foodSources = foodSources.size();
+            lookup.commit();
+        }
+        kernel.bounce(agents, nextAgents, from, to, agent, worldWidth, worldHeight);
+    }
+
+    private void commit(AvoidCollisionEvent steering, int from, int to) {
+        if (!steering.shouldCommit()) return;
+
+        int moving = 0;
+        for (int i = from; i < to; i++) {
+            if (Agent.isMoving(agents.state[i])) moving++;
+        }
+        steering.agents = to - from;
+        steering.movingAgents = moving;
+        steering.kernel = kernel == null ? "agent" : kernel.getName();
+        steering.commit();
+    }
+
+    private class MoveTask extends RecursiveAction {
+        private final int from, to;
+
+        MoveTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= AGENTS_PER_TASK) {
+                moveRange(from, to);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new MoveTask(from, middle), new MoveTask(middle, to));
+            }
+        }
+    }
+
+    public void run(long ticks) {
+        for (long t = 0; t < ticks; t++) {
+            tick();
+        }
+    }
+
+    public void reset() {
+        tickCount = 0;
+        agents.clear();
+        scheduled = false;
+        gridCurrent = false;
+        foodSources.clear();
+        foodIndex.clear();
+        foodVersion++;
+        if (pheromones != null) pheromones.clear();
+        events.setTick(0);
+        events.publishReset();
+        for (SimulationListener listener : listeners) listener.simulationReset(this);
+    }
+
+    void restore(long seed, long tickCount, int worldWidth, int worldHeight, AgentParameters parameters,
+                 List<FoodSource> foodSources, AgentPopulation agents, PheromoneField pheromones) {
+        this.seed = seed;
+        this.tickCount = tickCount;
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        this.parameters = parameters;
+        this.agents = agents;
+        this.pheromones = pheromones;
+        agent = new Agent(hive, seed, parameters);
+        scheduled = false;
+        gridCurrent = false;
+        this.foodSources.clear();
+        this.foodSources.addAll(foodSources);
+        foodIndex.rebuild(this.foodSources, worldWidth, worldHeight);
+        foodVersion++;
+
+        events.setTick(tickCount);
+        events.publishReset();
+        for (SimulationListener listener : listeners) listener.simulationReset(this);
+        events.publishSources(this.foodSources);
+        for (SimulationListener listener : listeners) listener.foodSourcesPlaced(this, this.foodSources);
+    }
+
+    public void setPopulation(int population) {
+        syncTimers();
+        scheduled = false;
+        gridCurrent = false;
+        int currentPopulation = agents.size();
+        if (population > currentPopulation) {
+            for (int i = 0; i < (population - currentPopulation); i++) {
+                boolean isResting = (i % 10 == 0);
+                agent.spawn(agents, isResting);
+            }
+        } else if (population < currentPopulation) {
+            for (int i = 0; i < (currentPopulation - population); i++) {
+                agents.removeLast();
+            }
+        }
+    }
+
+    public void setFoodSources(int count) {
+        FoodSource.placeAll(foodSources, seed, count, worldWidth, worldHeight, List.of(hive));
+        foodIndex.rebuild(foodSources, worldWidth, worldHeight);
+        foodVersion++;
+        events.publishSources(foodSources);
+        for (SimulationListener listener : listeners) listener.foodSourcesPlaced(this, foodSources);
+    }
+
+    static Color foodColor(int foodID) {
+        if (foodID < FOOD_COLORS.length) return FOOD_COLORS[foodID];
+        return Color.getHSBColor((foodID * GOLDEN_RATIO_CONJUGATE) % 1f, 0.75f, 0.95f);
+    }
+
+    public void setHive(Hive hive) {
+        this.hive = hive;
+        agent = new Agent(hive, seed, parameters);
+    }
+
+    public void setParameters(AgentParameters parameters) {
+        this.parameters = parameters;
+        agent = new Agent(hive, seed, parameters);
+    }
+
+    public AgentParameters getParameters() {
+        return parameters;
+    }
+
+    public void setParallelism(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+        parallelism = threads;
+        if (threads > 1) {
+            pool = new ForkJoinPool(threads);
+        }
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setMovementKernel(MovementKernel kernel) {
+        this.kernel = kernel;
+    }
+
+    public MovementKernel getMovementKernel() {
+        return kernel;
+    }
+
+    // Returning bees lay a trail that searching bees follow. Null turns
+    // trails off, which is the default.
+    public void setPheromoneField(PheromoneField pheromones) {
+        this.pheromones = pheromones;
+    }
+
+    public PheromoneField getPheromoneField() {
+        return pheromones;
+    }
+
+    public void setWorldSize(int worldWidth, int worldHeight) {
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        gridCurrent = false;
+    }
+
+    public AgentPopulation getAgents() {
+        return agents;
+    }
+
+    // The other half of the double buffer: every bee as of the previous tick.
+    AgentPopulation getPreviousAgents() {
+        return nextAgents;
+    }
+
+    // The grid built at the start of the last tick, or null once the bees or
+    // the world have changed since. It leaves out bees that were resting then,
+    // and the others have moved at most one step since it was built.
+    SpatialGrid getGrid() {
+        return gridCurrent ? grid : null;
+    }
+
+    public Agent getAgent() {
+        return agent;
+    }
+
+    public List<FoodSource> getFoodSources() {
+        return foodSources;
+    }
+
+    public FoodIndex getFoodIndex() {
+        return foodIndex;
+    }
+
+    public long getFoodVersion() {
+        return foodVersion;
+    }
+
+    public Hive getHive() {
+        return hive;
+    }
+
+    public int getWorldWidth() { return worldWidth; }
+    public int getWorldHeight() { return worldHeight; }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    void syncTimers() {
+        if (scheduled) scheduler.syncTimers(agents, tickCount);
+    }
+
+    public int getActiveAgentCount() {
+        return scheduled ? scheduler.getActiveCount() : agents.size();
+    }
+
+    // Bees in RESTING at the end of the last tick, without scanning the population.
+    public int getRestingCount() {
+        return scheduled ? scheduler.getRestingCount() : agents.count(Agent.State.RESTING);
+    }
+
+    public long checksum() {
+        syncTimers();
+        return checksum(agents, tickCount, foodSources, hive.getStoredFood());
+    }
+
+    static long checksum(AgentPopulation agents, long tickCount, List<FoodSource> foodSources, int storedFood) {
+        long hash = 31 * agents.checksum() + tickCount;
+        for (FoodSource food : foodSources) {
+            hash = 31 * hash + food.getQuantity();
+        }
+        return 31 * hash + storedFood;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    public int getSecondsElapsed() {
+        return (int) (tickCount / TICKS_PER_SECOND);
+    }
+}
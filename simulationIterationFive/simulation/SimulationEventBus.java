@@ -0,0 +1,277 @@
+package simulation;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+public class SimulationEventBus {
+    private static final int CAPACITY = 1 << 16;
+    private static final int BATCH = 4096;
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int MAX_TRACKED_SOURCES = 4 * (CAPACITY / 2 - 1);
+
+    private static final int RESET = 0, SOURCES = 1, DEPOSIT = 3, COLLECTION = 4, DEPLETION = 5, SECOND = 6;
+
+    private final EventRing ring = new EventRing(CAPACITY);
+    private final List<SimulationEventListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile int trackedSources = 0;
+    private long tick = 0;
+    private Thread consumer;
+
+    // Producer side, touched only by the publishing thread. Whatever the ring
+    // has no room for is folded in here and sent once it drains, so a tick
+    // never waits on the charts.
+    private boolean backlog = false;
+    private boolean resetUnsent = false;
+    private int[] sourcesUnsent;
+    private int shippedSources = 0;
+    private int[] collectedUnsent = new int[0];
+    private boolean collectionsUnsent = false;
+    private boolean depositUnsent = false;
+    private int depositedUnsent = 0;
+    private int storedFoodUnsent = 0;
+    private final BitSet depletedUnsent = new BitSet();
+    private int secondUnsent = -1;
+
+    // Consumer side.
+    private int storedFood = 0;
+    private int[] quantities = new int[0];
+    private int loaded = 0;
+    private boolean depositPending = false;
+    private int depositSeconds = 0;
+
+    public synchronized void addListener(SimulationEventListener listener) {
+        listeners.add(listener);
+        updateTrackedSources();
+        if (consumer == null) {
+            consumer = new Thread(this::consume, "simulation-events");
+            consumer.setDaemon(true);
+            consumer.start();
+        }
+    }
+
+    public synchronized void removeListener(SimulationEventListener listener) {
+        listeners.remove(listener);
+        updateTrackedSources();
+    }
+
+    private void updateTrackedSources() {
+        int tracked = 0;
+        for (SimulationEventListener listener : listeners) {
+            tracked = Math.max(tracked, listener.plottedSources());
+        }
+        trackedSources = Math.min(tracked, MAX_TRACKED_SOURCES);
+    }
+
+    void setTick(long tick) {
+        this.tick = tick;
+    }
+
+    void publishReset() {
+        if (listeners.isEmpty()) return;
+
+        // Nothing still unsent describes the world that follows.
+        clearBacklog();
+        if (!offer(RESET, 0, 0)) {
+            resetUnsent = true;
+            backlog = true;
+        }
+    }
+
+    void publishSources(List<FoodSource> foodSources) {
+        if (listeners.isEmpty()) return;
+
+        int[] sources = new int[Math.min(foodSources.size(), trackedSources)];
+        for (int f = 0; f < sources.length; f++) {
+            sources[f] = foodSources.get(f).getQuantity();
+        }
+        shippedSources = sources.length;
+        collectedUnsent = new int[sources.length];
+        collectionsUnsent = false;
+        sourcesUnsent = null;
+        if (!(flushed() && offerSources(sources))) {
+            sourcesUnsent = sources;
+            backlog = true;
+        }
+    }
+
+    void publishDeposit(int amount, int storedFood) {
+        if (listeners.isEmpty()) return;
+
+        if (!(flushed() && offer(DEPOSIT, amount, storedFood))) {
+            depositUnsent = true;
+            depositedUnsent += amount;
+            storedFoodUnsent = storedFood;
+            backlog = true;
+        }
+    }
+
+    void publishCollection(int sourceIndex, int amount, boolean depleted) {
+        if (listeners.isEmpty()) return;
+
+        if (sourceIndex < shippedSources && !(flushed() && offer(COLLECTION, sourceIndex, amount))) {
+            collectedUnsent[sourceIndex] += amount;
+            collectionsUnsent = true;
+            backlog = true;
+        }
+        if (depleted && !(flushed() && offer(DEPLETION, sourceIndex, 0))) {
+            depletedUnsent.set(sourceIndex);
+            backlog = true;
+        }
+    }
+
+    void publishSecond(int seconds) {
+        if (listeners.isEmpty()) return;
+
+        if (!(flushed() && offer(SECOND, seconds, 0))) {
+            secondUnsent = seconds;
+            backlog = true;
+        }
+    }
+
+    // Called once a tick so that a backlog is delivered even when nothing new is published.
+    void publishBacklog() {
+        if (backlog) flush();
+    }
+
+    private boolean flushed() {
+        return !backlog || flush();
+    }
+
+    private boolean flush() {
+        if (resetUnsent) {
+            if (!offer(RESET, 0, 0)) return false;
+            resetUnsent = false;
+        }
+        if (sourcesUnsent != null) {
+            if (!offerSources(sourcesUnsent)) return false;
+            sourcesUnsent = null;
+        }
+        if (collectionsUnsent) {
+            for (int f = 0; f < collectedUnsent.length; f++) {
+                if (collectedUnsent[f] == 0) continue;
+                if (!offer(COLLECTION, f, collectedUnsent[f])) return false;
+                collectedUnsent[f] = 0;
+            }
+            collectionsUnsent = false;
+        }
+        if (depositUnsent) {
+            if (!offer(DEPOSIT, depositedUnsent, storedFoodUnsent)) return false;
+            depositUnsent = false;
+            depositedUnsent = 0;
+        }
+        for (int f = depletedUnsent.nextSetBit(0); f >= 0; f = depletedUnsent.nextSetBit(f + 1)) {
+            if (!offer(DEPLETION, f, 0)) return false;
+            depletedUnsent.clear(f);
+        }
+        if (secondUnsent >= 0) {
+            if (!offer(SECOND, secondUnsent, 0)) return false;
+            secondUnsent = -1;
+        }
+        backlog = false;
+        return true;
+    }
+
+    private void clearBacklog() {
+        backlog = false;
+        resetUnsent = false;
+        sourcesUnsent = null;
+        shippedSources = 0;
+        collectedUnsent = new int[0];
+        collectionsUnsent = false;
+        depositUnsent = false;
+        depositedUnsent = 0;
+        depletedUnsent.clear();
+        secondUnsent = -1;
+    }
+
+    private boolean offer(int type, int first, int second) {
+        long header = (long) type << 56 | tick;
+        long payload = (long) first << 32 | (second & 0xFFFFFFFFL);
+        return ring.offer(header, payload);
+    }
+
+    // One message for every source: a header slot with the count, then four
+    // quantities to each following slot.
+    private boolean offerSources(int[] sources) {
+        long[] words = new long[2 + 2 * ((sources.length + 3) / 4)];
+        words[0] = (long) SOURCES << 56 | tick;
+        words[1] = (long) sources.length << 32;
+        for (int f = 0; f < sources.length; f++) {
+            int word = 2 + f / 2;
+            long value = sources[f] & 0xFFFFFFFFL;
+            words[word] |= f % 2 == 0 ? value << 32 : value;
+        }
+        return ring.offer(words);
+    }
+
+    private void consume() {
+        while (true) {
+            int read = ring.drain(this::apply, BATCH);
+            flushDeposits();
+            if (read == 0) {
+                LockSupport.parkNanos(IDLE_NANOS);
+            }
+        }
+    }
+
+    private void apply(long header, long payload) {
+        if (loaded < quantities.length) {
+            loadSources(header);
+            loadSources(payload);
+            return;
+        }
+
+        int type = (int) (header >>> 56);
+        long eventTick = header & 0x00FFFFFFFFFFFFFFL;
+        int seconds = (int) (eventTick / SimulationEngine.TICKS_PER_SECOND);
+        int first = (int) (payload >>> 32);
+        int second = (int) payload;
+
+        switch (type) {
+            case RESET:
+                flushDeposits();
+                storedFood = 0;
+                quantities = new int[0];
+                loaded = 0;
+                for (SimulationEventListener listener : listeners) listener.simulationReset();
+                break;
+            case SOURCES:
+                quantities = new int[first];
+                loaded = 0;
+                break;
+            case DEPOSIT:
+                storedFood = second;
+                depositPending = true;
+                depositSeconds = seconds;
+                break;
+            case COLLECTION:
+                quantities[first] -= second;
+                break;
+            case DEPLETION:
+                for (SimulationEventListener listener : listeners) listener.foodSourceDepleted(first, seconds);
+                break;
+            case SECOND:
+                flushDeposits();
+                int[] snapshot = quantities.clone();
+                for (SimulationEventListener listener : listeners) listener.secondElapsed(first, storedFood, snapshot);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void loadSources(long word) {
+        if (loaded < quantities.length) quantities[loaded++] = (int) (word >>> 32);
+        if (loaded < quantities.length) quantities[loaded++] = (int) word;
+    }
+
+    private void flushDeposits() {
+        if (!depositPending) return;
+
+        depositPending = false;
+        for (SimulationEventListener listener : listeners) listener.foodDeposited(depositSeconds, storedFood);
+    }
+}
@@ -0,0 +1,16 @@
+package simulation;
+
+public interface SimulationEventListener {
+    default void foodDeposited(int seconds, int storedFood) {}
+
+    default void foodSourceDepleted(int sourceIndex, int seconds) {}
+
+    default void secondElapsed(int seconds, int storedFood, int[] foodQuantities) {}
+
+    default void simulationReset() {}
+
+    // How many food sources, counted from the first, secondElapsed reports.
+    default int plottedSources() {
+        return Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,16 @@
+package simulation;
+
+import java.util.List;
+
+public interface SimulationListener {
+    default void foodSourcesPlaced(SimulationEngine engine, List<FoodSource> foodSources) {}
+
+    default void ticked(SimulationEngine engine) {}
+
+    default void secondElapsed(SimulationEngine engine, int seconds) {}
+
+    // Called during the tick that takes the source's last food.
+    default void foodSourceDepleted(SimulationEngine engine, int sourceIndex) {}
+
+    default void simulationReset(SimulationEngine engine) {}
+}
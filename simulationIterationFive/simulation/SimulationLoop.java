@@ -0,0 +1,220 @@
+package simulation;
+
+import metrics.MetricsRegistry;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+public class SimulationLoop {
+    private static final long PAUSED_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+    private static final long MAX_LAG_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+    private static final long FRAME_NANOS = TimeUnit.SECONDS.toNanos(1) / 60;
+    private static final long MIN_IDLE_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+    private static final long MAX_IDLE_NANOS = FRAME_NANOS / 2;
+    private static final long RATE_WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    public static final int DEFAULT_DENSITY_THRESHOLD = 50_000;
+    public static final int UNLIMITED = 0;
+
+    private final SimulationEngine engine;
+    private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<WorldSnapshot> snapshot = new AtomicReference<>();
+    private volatile int ticksPerSecond;
+    private volatile int densityThreshold = DEFAULT_DENSITY_THRESHOLD;
+    private volatile WorldSnapshot.View view;
+    private final AtomicBoolean republishing = new AtomicBoolean();
+    private volatile boolean running = false;
+    private volatile boolean paused = false;
+    private volatile double measuredTicksPerSecond = 0;
+    private long idleNanos = MIN_IDLE_NANOS;
+    private Thread thread;
+
+    public SimulationLoop(SimulationEngine engine, int ticksPerSecond) {
+        this.engine = engine;
+        this.ticksPerSecond = ticksPerSecond;
+    }
+
+    public synchronized void start() {
+        if (thread != null) return;
+
+        running = true;
+        paused = false;
+        thread = new Thread(this::run, "simulation-loop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void pause() {
+        paused = true;
+    }
+
+    public synchronized void resume() {
+        paused = false;
+        if (thread != null) LockSupport.unpark(thread);
+    }
+
+    public synchronized void stop() {
+        if (thread == null) return;
+
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+        runCommands();
+    }
+
+    public synchronized boolean isRunning() {
+        return thread != null;
+    }
+
+    public synchronized void execute(Runnable command) {
+        if (thread == null) {
+            command.run();
+        } else {
+            commands.add(command);
+        }
+    }
+
+    public void publishSnapshot() {
+        snapshot.set(WorldSnapshot.capture(engine, snapshot.get(), tickNanos(), densityThreshold, view));
+    }
+
+    // Snapshots only carry the bees in view, so a stopped loop captures a new
+    // one when the view moves; a running loop picks it up on its next frame.
+    public void setView(Camera camera, int viewWidth, int viewHeight) {
+        view = new WorldSnapshot.View(camera, viewWidth, viewHeight);
+        if ((paused || !isRunning()) && republishing.compareAndSet(false, true)) {
+            execute(() -> {
+                republishing.set(false);
+                publishSnapshot();
+            });
+        }
+    }
+
+    public WorldSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    public void setTicksPerSecond(int ticksPerSecond) {
+        if (ticksPerSecond < 0) {
+            throw new IllegalArgumentException("Ticks per second must not be negative");
+        }
+        this.ticksPerSecond = ticksPerSecond;
+        LockSupport.unpark(thread);
+    }
+
+    public int getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    public double getMeasuredTicksPerSecond() {
+        return measuredTicksPerSecond;
+    }
+
+    // Gauges read the latest published snapshot, never the live engine.
+    public void exportMetrics(MetricsRegistry registry) {
+        for (Agent.State state : Agent.State.values()) {
+            registry.gauge("bee_agents", "Bees in each state", () -> {
+                WorldSnapshot latest = snapshot.get();
+                return latest == null ? 0 : latest.countAgents(state);
+            }, "state", state.name());
+        }
+        registry.gauge("bee_food_in_flight", "Food carried by bees and not yet deposited", () -> {
+            WorldSnapshot latest = snapshot.get();
+            return latest == null ? 0 : latest.getFoodInFlight();
+        });
+        registry.gauge("bee_hive_stored_food", "Food stored in the hive", () -> {
+            WorldSnapshot latest = snapshot.get();
+            return latest == null ? 0 : latest.getStoredFood();
+        });
+        registry.gauge("bee_simulation_tick", "Tick of the latest published frame", () -> {
+            WorldSnapshot latest = snapshot.get();
+            return latest == null ? 0 : latest.getTick();
+        });
+        registry.gauge("bee_ticks_per_second", "Measured simulation rate", this::getMeasuredTicksPerSecond);
+    }
+
+    public void setDensityThreshold(int densityThreshold) {
+        this.densityThreshold = densityThreshold;
+    }
+
+    public int getDensityThreshold() {
+        return densityThreshold;
+    }
+
+    // Runs as many ticks as are due, but never more than one frame's worth of
+    // work, before publishing a single snapshot. When the loop falls behind it
+    // idles for a short slice each frame; the slice grows while the renderer
+    // has not caught up with the last snapshot and shrinks once it has.
+    private void run() {
+        long nextTick = System.nanoTime();
+        long rateStart = nextTick, rateTicks = 0;
+        while (running) {
+            runCommands();
+
+            if (paused) {
+                measuredTicksPerSecond = 0;
+                LockSupport.parkNanos(PAUSED_POLL_NANOS);
+                nextTick = System.nanoTime();
+                continue;
+            }
+
+            int ticksPerSecond = this.ticksPerSecond;
+            long now = System.nanoTime();
+            long frameEnd = now + FRAME_NANOS - idleNanos;
+            int ticks = 0;
+            while (ticksPerSecond == UNLIMITED || nextTick - now <= 0) {
+                engine.tick();
+                ticks++;
+                nextTick += tickNanos(ticksPerSecond);
+                now = System.nanoTime();
+                if (now - frameEnd >= 0 || paused || !running || !commands.isEmpty()) break;
+            }
+
+            if (ticks > 0) {
+                WorldSnapshot previous = snapshot.get();
+                if (previous == null || previous.isDrawn()) {
+                    idleNanos = Math.max(MIN_IDLE_NANOS, idleNanos / 2);
+                } else {
+                    idleNanos = Math.min(MAX_IDLE_NANOS, idleNanos * 2);
+                }
+                publishSnapshot();
+                rateTicks += ticks;
+            }
+
+            now = System.nanoTime();
+            if (now - rateStart >= RATE_WINDOW_NANOS) {
+                measuredTicksPerSecond = rateTicks * (double) TimeUnit.SECONDS.toNanos(1) / (now - rateStart);
+                rateStart = now;
+                rateTicks = 0;
+            }
+
+            if (ticksPerSecond == UNLIMITED || nextTick - now < -MAX_LAG_NANOS) {
+                nextTick = now;
+            }
+            LockSupport.parkNanos(Math.max(nextTick - now, idleNanos));
+        }
+    }
+
+    private void runCommands() {
+        Runnable command;
+        while ((command = commands.poll()) != null) {
+            command.run();
+        }
+    }
+
+    private long tickNanos() {
+        return tickNanos(ticksPerSecond);
+    }
+
+    private static long tickNanos(int ticksPerSecond) {
+        return ticksPerSecond == UNLIMITED ? FRAME_NANOS : TimeUnit.SECONDS.toNanos(1) / ticksPerSecond;
+    }
+}
@@ -1,142 +1,275 @@
 package simulation;
 
+import metrics.MetricsRegistry;
+
 import javax.swing.*;
-import visualisation.FoodDepletionGraph;
 import java.awt.*;
-import java.util.ArrayList;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
-import java.util.Random;
 
 
 public class SimulationPanel extends JPanel {
-    private List<Agent> agents;
-    private List<FoodSource> foodSources;
-    private Timer timer;
-    private Hive hive;
+    private static final int FRAMES_PER_SECOND = 60;
+    private static final double ZOOM_STEP = 1.1;
+    public static final int DEFAULT_WORLD_WIDTH = 1000, DEFAULT_WORLD_HEIGHT = 500;
+
+    private final SimulationEngine engine;
+    private final SimulationLoop loop;
+    private final Timer repaintTimer;
+    private ActiveRenderer activeRenderer;
+    private TrajectoryRecorder recorder;
+    private final CameraControls cameraControls = new CameraControls();
+    private volatile Camera camera = Camera.IDENTITY;
+    private int worldWidth = DEFAULT_WORLD_WIDTH, worldHeight = DEFAULT_WORLD_HEIGHT;
     private boolean isRunning = false;
 
     public SimulationPanel(Hive hive) {
-        this.hive = hive;
+        super(new BorderLayout());
         setBackground(Color.GREEN);
-        setPreferredSize(new Dimension(1000, 500));
+        setPreferredSize(new Dimension(DEFAULT_WORLD_WIDTH, DEFAULT_WORLD_HEIGHT));
+
+        engine = new SimulationEngine(worldWidth, worldHeight, hive);
+        engine.setMovementKernel(MovementKernel.create());
+        loop = new SimulationLoop(engine, SimulationEngine.TICKS_PER_SECOND);
+        loop.publishSnapshot();
+        loop.exportMetrics(MetricsRegistry.DEFAULT);
+        repaintTimer = new Timer(1000 / FRAMES_PER_SECOND, e -> repaint());
 
-        agents = new ArrayList<>();
-        foodSources = new ArrayList<>();
+        addMouseListener(cameraControls);
+        addMouseMotionListener(cameraControls);
+        addMouseWheelListener(cameraControls);
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                setCamera(camera);
+            }
+        });
     }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        hive.draw(g);
-        for (Agent agent : agents) agent.draw(g);
-        for (FoodSource food : foodSources) food.draw(g);
+        WorldSnapshot snapshot = loop.getSnapshot();
+        if (snapshot != null) {
+            snapshot.draw(g, System.nanoTime(), camera, getWidth(), getHeight());
+        }
+    }
+
+    public Camera getCamera() {
+        return camera;
+    }
+
+    public void setCamera(Camera camera) {
+        this.camera = camera.clampTo(worldWidth, worldHeight, getWidth(), getHeight());
+        loop.setView(this.camera, getWidth(), getHeight());
+        repaint();
+    }
+
+    public void fitWorldToView() {
+        setCamera(Camera.fit(worldWidth, worldHeight, getWidth(), getHeight()));
+    }
+
+    public void setWorldSize(int worldWidth, int worldHeight) {
+        if (isRunning) return;
+
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        engine.setWorldSize(worldWidth, worldHeight);
+        loop.publishSnapshot();
+        fitWorldToView();
+    }
+
+    public int getWorldWidth() {
+        return worldWidth;
+    }
+
+    public int getWorldHeight() {
+        return worldHeight;
+    }
+
+    private class CameraControls extends MouseAdapter {
+        private int lastX, lastY;
+
+        @Override
+        public void mousePressed(MouseEvent e) {
+            lastX = e.getX();
+            lastY = e.getY();
+        }
+
+        @Override
+        public void mouseDragged(MouseEvent e) {
+            setCamera(camera.pan(e.getX() - lastX, e.getY() - lastY));
+            lastX = e.getX();
+            lastY = e.getY();
+        }
+
+        @Override
+        public void mouseWheelMoved(MouseWheelEvent e) {
+            setCamera(camera.zoom(e.getX(), e.getY(), Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation())));
+        }
+
+        @Override
+        public void mouseClicked(MouseEvent e) {
+            if (e.getClickCount() == 2) fitWorldToView();
+        }
     }
 
     public void startSimulation() {
-        if (timer == null || !timer.isRunning()) {
+        if (!loop.isRunning()) {
             isRunning = true;
-            timer = new Timer(16, e -> {
-                for (Agent agent : agents) {
-                    agent.move(getWidth(), getHeight(), agents, foodSources);
-                }
-                repaint();
-            });
-            timer.start();
+            loop.start();
+            if (activeRenderer == null) repaintTimer.start();
         }
     }
 
     public void pauseSimulation() {
-        if (timer != null && timer.isRunning()) {
-            timer.stop();
-        }
+        loop.pause();
+        repaintTimer.stop();
+    }
 
-    }	
-    
     public void resumeSimulation() {
-        if (timer != null && !timer.isRunning()) {
-            timer.start();
+        if (!loop.isRunning()) {
+            startSimulation();
+            return;
+        }
+        loop.resume();
+        if (activeRenderer == null) repaintTimer.start();
+    }
+
+    public void setActiveRendering(boolean active) {
+        if (active == (activeRenderer != null)) return;
+
+        if (active) {
+            repaintTimer.stop();
+            activeRenderer = new ActiveRenderer(loop, FRAMES_PER_SECOND, this::getCamera);
+            activeRenderer.addMouseListener(cameraControls);
+            activeRenderer.addMouseMotionListener(cameraControls);
+            activeRenderer.addMouseWheelListener(cameraControls);
+            add(activeRenderer, BorderLayout.CENTER);
+            revalidate();
+            activeRenderer.start();
+        } else {
+            activeRenderer.stop();
+            remove(activeRenderer);
+            activeRenderer = null;
+            revalidate();
+            if (isRunning) repaintTimer.start();
+            repaint();
         }
     }
-  
+
     public void setHive(Hive hive) {
-        this.hive = hive;
+        loop.execute(() -> engine.setHive(hive));
     }
-    
+
     public void resetSimulation() {
-        if (timer != null) {
-            timer.stop();
-        }
+        loop.stop();
+        repaintTimer.stop();
         isRunning = false;
-        agents.clear();
-        foodSources.clear();
+        engine.reset();
+        loop.publishSnapshot();
         repaint();
     }
 
-    public void setPopulation(int population) {
-        if (isRunning) return;
+    public void saveCheckpoint(Path path) {
+        loop.execute(() -> {
+            try {
+                Checkpoint.save(engine, path);
+            } catch (IOException e) {
+                showError("Could not save checkpoint: " + e.getMessage());
+            }
+        });
+    }
 
-        int currentPopulation = agents.size();
-        if (population > currentPopulation) {
-            for (int i = 0; i < (population - currentPopulation); i++) {
-                boolean isResting = (i % 10 == 0);
-                agents.add(new Agent(hive, isResting));
+    // Leaves the run paused on the restored tick and calls 'loaded' on the
+    // event thread; a checkpoint that fails to load changes nothing.
+    public void loadCheckpoint(Path path, Runnable loaded) {
+        loop.execute(() -> {
+            try {
+                Checkpoint.restore(engine, path);
+            } catch (IOException e) {
+                showError("Could not load checkpoint: " + e.getMessage());
+                return;
             }
-        } else if (population < currentPopulation) {
-            for (int i = 0; i < (currentPopulation - population); i++) {
-                agents.remove(agents.size() - 1);
+            loop.pause();
+            loop.publishSnapshot();
+            int restoredWidth = engine.getWorldWidth(), restoredHeight = engine.getWorldHeight();
+            SwingUtilities.invokeLater(() -> {
+                repaintTimer.stop();
+                worldWidth = restoredWidth;
+                worldHeight = restoredHeight;
+                fitWorldToView();
+                loaded.run();
+            });
+        });
+    }
+
+    public void startRecording(Path path) throws IOException {
+        stopRecording();
+        TrajectoryRecorder recorder = new TrajectoryRecorder(path);
+        loop.execute(() -> engine.addListener(recorder));
+        this.recorder = recorder;
+    }
+
+    public void stopRecording() {
+        TrajectoryRecorder recorder = this.recorder;
+        if (recorder == null) return;
+
+        this.recorder = null;
+        loop.execute(() -> {
+            engine.removeListener(recorder);
+            try {
+                recorder.close();
+            } catch (IOException e) {
+                showError("Could not write trajectory: " + e.getMessage());
             }
-        }
+        });
+    }
+
+    private void showError(String message) {
+        SwingUtilities.invokeLater(() ->
+                JOptionPane.showMessageDialog(this, message, "Error", JOptionPane.ERROR_MESSAGE));
+    }
+
+    public void setPopulation(int population) {
+        if (isRunning) return;
+
+        engine.setPopulation(population);
+        loop.publishSnapshot();
         repaint();
     }
 
     public void setFoodSources(int count) {
-        Random random = new Random();
-        foodSources.clear();
-        List<Integer> initialQuantities = new ArrayList<>();
-        List<Color> foodColors = new ArrayList<>();
-
-        Color[] FOOD_COLORS = {
-            Color.BLUE, Color.RED, Color.ORANGE, Color.MAGENTA,
-            Color.CYAN, Color.YELLOW, Color.PINK, Color.GRAY,
-            Color.LIGHT_GRAY, Color.BLACK
-        };
-
-        while (foodSources.size() < count) {
-            int x = random.nextInt(getWidth() - 20) + 10;
-            int y = random.nextInt(getHeight() - 20) + 10;
-
-            int hiveDistance = (int) Math.sqrt(Math.pow(x - hive.getX(), 2) + Math.pow(y - hive.getY(), 2));
-            if (hiveDistance < hive.getRadius() + 50) continue;
-
-            boolean tooClose = false;
-            for (FoodSource food : foodSources) {
-                int foodDistance = (int) Math.sqrt(Math.pow(x - food.getX(), 2) + Math.pow(y - food.getY(), 2));
-                if (foodDistance < 30) {
-                    tooClose = true;
-                    break;
-                }
-            }
+        engine.setFoodSources(count);
+        loop.publishSnapshot();
+        repaint();
+    }
 
-            if (!tooClose) {
-                int foodID = foodSources.size();
-                Color assignedColor = FOOD_COLORS[foodID % FOOD_COLORS.length];
-                FoodSource food = new FoodSource(x, y, 10, 50, "FS" + (foodID + 1), assignedColor);
-                foodSources.add(food);
-                initialQuantities.add(food.getQuantity());
-                foodColors.add(assignedColor);
-            }
-        }
+    public void setDensityThreshold(int agentCount) {
+        loop.setDensityThreshold(agentCount);
+        loop.execute(loop::publishSnapshot);
+        repaint();
+    }
 
-        hive.getFoodDepletionGraph().initializeFoodSources(foodSources.size(), initialQuantities, foodColors);
+    public SimulationEngine getEngine() {
+        return engine;
+    }
 
-        repaint();
+    public SimulationLoop getLoop() {
+        return loop;
     }
-    
+
     public List<FoodSource> getFoodSources() {
-        return foodSources;
+        return engine.getFoodSources();
     }
 
     public Hive getHive() {
-        return hive;
+        return engine.getHive();
     }
 }
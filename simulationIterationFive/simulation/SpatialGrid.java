@@ -0,0 +1,107 @@
+package simulation;
+
+import java.util.Arrays;
+
+public class SpatialGrid {
+    // Slack after the last entry so vector kernels can load a full lane group.
+    static final int ORDER_PADDING = 16;
+
+    private final int cellSize;
+    private int originX;
+    private int columns, rows;
+    private int[] cellStart = new int[1];
+    private int[] cursor = new int[0];
+    private int[] order = new int[0];
+    private int[] orderX = new int[0], orderY = new int[0];
+
+    public SpatialGrid(int cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    public void rebuild(AgentPopulation bees, int width, int height) {
+        rebuild(bees, 0, width, height);
+    }
+
+    // Covers only the columns from originX to originX + width; agents outside
+    // them fall into the edge cells.
+    public void rebuild(AgentPopulation bees, int originX, int width, int height) {
+        this.originX = originX;
+        columns = Math.max(1, (width + cellSize - 1) / cellSize);
+        rows = Math.max(1, (height + cellSize - 1) / cellSize);
+        if (cellStart.length != columns * rows + 1) {
+            cellStart = new int[columns * rows + 1];
+            cursor = new int[columns * rows];
+        } else {
+            Arrays.fill(cellStart, 0);
+        }
+
+        int count = bees.size();
+        if (order.length < count + ORDER_PADDING) {
+            order = new int[count + ORDER_PADDING];
+            orderX = new int[count + ORDER_PADDING];
+            orderY = new int[count + ORDER_PADDING];
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (bees.state[i] != Agent.RESTING) {
+                cellStart[cellFor(bees.x[i], bees.y[i]) + 1]++;
+            }
+        }
+        for (int cell = 0; cell < columns * rows; cell++) {
+            cellStart[cell + 1] += cellStart[cell];
+        }
+
+        System.arraycopy(cellStart, 0, cursor, 0, columns * rows);
+        for (int i = 0; i < count; i++) {
+            if (bees.state[i] != Agent.RESTING) {
+                int position = cursor[cellFor(bees.x[i], bees.y[i])]++;
+                order[position] = i;
+                orderX[position] = bees.x[i];
+                orderY[position] = bees.y[i];
+            }
+        }
+    }
+
+    public int column(int x) {
+        return clamp(Math.floorDiv(x - originX, cellSize), columns);
+    }
+
+    public int row(int y) {
+        return clamp(Math.floorDiv(y, cellSize), rows);
+    }
+
+    public int cellStart(int column, int row) {
+        return cellStart[row * columns + column];
+    }
+
+    public int cellEnd(int column, int row) {
+        return cellStart[row * columns + column + 1];
+    }
+
+    public int agentAt(int position) {
+        return order[position];
+    }
+
+    int[] agentOrder() {
+        return order;
+    }
+
+    // Positions copied in grid order, so neighbour scans read contiguous memory.
+    int[] agentX() {
+        return orderX;
+    }
+
+    int[] agentY() {
+        return orderY;
+    }
+
+    private int cellFor(int x, int y) {
+        return row(y) * columns + column(x);
+    }
+
+    private static int clamp(int value, int size) {
+        if (value < 0) return 0;
+        if (value >= size) return size - 1;
+        return value;
+    }
+}
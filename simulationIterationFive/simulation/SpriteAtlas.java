@@ -0,0 +1,51 @@
+package simulation;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+public final class SpriteAtlas {
+    private static final BufferedImage ATLAS;
+    private static final BufferedImage[] BEE_SPRITES;
+    private static final Graphics2D METRICS_GRAPHICS;
+
+    static {
+        int size = Agent.SIZE;
+        Agent.State[] states = Agent.STATES;
+        ATLAS = createImage(size * states.length, size);
+        BEE_SPRITES = new BufferedImage[states.length];
+
+        Graphics2D g = ATLAS.createGraphics();
+        for (Agent.State state : states) {
+            int left = state.ordinal() * size;
+            Color first = state == Agent.State.RESTING ? Color.BLACK : Color.YELLOW;
+            Color second = state == Agent.State.RESTING ? Color.YELLOW : Color.BLACK;
+            g.setColor(first);
+            g.fillArc(left, 0, size, size, 90, 180);
+            g.setColor(second);
+            g.fillArc(left, 0, size, size, 270, 180);
+            BEE_SPRITES[state.ordinal()] = ATLAS.getSubimage(left, 0, size, size);
+        }
+        g.dispose();
+
+        METRICS_GRAPHICS = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+    }
+
+    private SpriteAtlas() {}
+
+    public static void drawBee(Graphics g, byte state, int x, int y) {
+        int radius = Agent.SIZE / 2;
+        g.drawImage(BEE_SPRITES[state], x - radius, y - radius, null);
+    }
+
+    public static BufferedImage beeSprite(Agent.State state) {
+        return BEE_SPRITES[state.ordinal()];
+    }
+
+    static FontMetrics metrics(Font font) {
+        return METRICS_GRAPHICS.getFontMetrics(font);
+    }
+
+    static BufferedImage createImage(int width, int height) {
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    }
+}
@@ -0,0 +1,30 @@
+package simulation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("simulation.StateTransitions")
+@Label("State Transitions")
+@Category({"Bee Simulation", "Tick"})
+@Description("The sequential pass that starts collections and deposits and parks timed bees")
+@Enabled(false)
+@StackTrace(false)
+final class StateTransitionEvent extends jdk.jfr.Event {
+    @Label("Agents")
+    int agents;
+
+    @Label("Active Agents")
+    @Description("Bees visited by the pass; the rest are parked on the timing wheel")
+    int activeAgents;
+
+    @Label("Parked Agents")
+    @Description("Bees that entered a timed state during the pass")
+    int parkedAgents;
+
+    @Label("Tick")
+    long tick;
+}
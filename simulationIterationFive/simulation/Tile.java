@@ -0,0 +1,303 @@
+package simulation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// One strip of a ColonySimulation world run on its own, talking to the
+// other strips only through a TileExchange. Each tick goes through the same
+// phases as Region, in the same order, so a set of tiles reproduces a
+// ColonySimulation with as many regions bit for bit. Hives here only hold
+// the food delivered inside this tile; a world's total is the sum over
+// tiles. Food is taken only by the tile owning the source, which answers
+// every claim with the amount granted.
+public final class Tile {
+    private final int index, tileCount;
+    private final int left, right, stripWidth;
+    private final int worldWidth, worldHeight;
+    private final List<Hive> hives;
+    private final AgentParameters parameters;
+    private final Agent[] agents;
+    private final long seed;
+    private final List<FoodSource> foodSources = new ArrayList<>();
+    private final FoodIndex foodIndex = new FoodIndex(30);
+    private final SpatialGrid grid = new SpatialGrid(30);
+    private AgentPopulation bees = new AgentPopulation();
+    private AgentPopulation next = new AgentPopulation();
+    private final AgentPopulation leftBorder = new AgentPopulation();
+    private final AgentPopulation rightBorder = new AgentPopulation();
+    private final ByteBuffer[] outgoing;
+    private final int[][] claimedAgents;
+    private final int[] claimCount;
+    private int[] depleted = new int[4];
+    private int depletedCount;
+    private long tickCount = 0;
+
+    public Tile(int index, int tileCount, int worldWidth, int worldHeight, List<Hive> hives, long seed) {
+        this(index, tileCount, worldWidth, worldHeight, hives, seed, AgentParameters.DEFAULTS);
+    }
+
+    public Tile(int index, int tileCount, int worldWidth, int worldHeight, List<Hive> hives, long seed,
+                AgentParameters parameters) {
+        if (hives.isEmpty()) {
+            throw new IllegalArgumentException("At least one hive is needed");
+        }
+        stripWidth = ColonySimulation.stripWidth(worldWidth, tileCount, parameters);
+        if (index < 0 || index >= tileCount) {
+            throw new IllegalArgumentException("Tile " + index + " is not one of " + tileCount + " tiles");
+        }
+
+        this.index = index;
+        this.tileCount = tileCount;
+        this.left = index * stripWidth;
+        this.right = Math.min(worldWidth, (index + 1) * stripWidth);
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        this.hives = List.copyOf(hives);
+        this.parameters = parameters;
+        this.seed = seed;
+
+        agents = new Agent[hives.size()];
+        for (int c = 0; c < agents.length; c++) {
+            agents[c] = new Agent(hives.get(c), RandomStreams.streamSeed(seed, c), parameters);
+        }
+        outgoing = new ByteBuffer[tileCount];
+        claimedAgents = new int[tileCount][16];
+        claimCount = new int[tileCount];
+        for (int t = 0; t < tileCount; t++) outgoing[t] = ByteBuffer.allocate(1024);
+    }
+
+    // Spawns every colony as ColonySimulation does and keeps the bees that
+    // start inside this tile.
+    public void setPopulation(int beesPerColony) {
+        bees.clear();
+        AgentPopulation[] strips = new AgentPopulation[tileCount];
+        strips[index] = bees;
+        ColonySimulation.spawnColonies(agents, beesPerColony, stripWidth, strips);
+    }
+
+    public void setFoodSources(int count) {
+        FoodSource.placeAll(foodSources, seed, count, worldWidth, worldHeight, hives);
+        foodIndex.rebuild(foodSources, worldWidth, worldHeight);
+    }
+
+    public void tick(TileExchange exchange) throws IOException {
+        ByteBuffer[] incoming = exchange.exchange(publishBorders());
+        int count = move(incoming);
+        incoming = exchange.exchange(settleClaims(exchange.exchange(sendClaims(count))));
+        applyGrants(incoming);
+        incoming = exchange.exchange(depart());
+        arrive(incoming);
+
+        tickCount++;
+        if (tickCount % SimulationEngine.TICKS_PER_SECOND == 0) {
+            for (Hive hive : hives) hive.incrementTime();
+        }
+    }
+
+    private ByteBuffer[] publishBorders() {
+        int avoidRadius = parameters.getAvoidRadius();
+        bees.appendBorders(left, right, avoidRadius, leftBorder, rightBorder);
+
+        startMessages();
+        if (index > 0) writeBees(index - 1, leftBorder);
+        if (index < tileCount - 1) writeBees(index + 1, rightBorder);
+        return finishMessages();
+    }
+
+    private int move(ByteBuffer[] borders) {
+        int count = bees.size();
+        if (index > 0) readBees(borders[index - 1]);
+        if (index < tileCount - 1) readBees(borders[index + 1]);
+
+        int avoidRadius = parameters.getAvoidRadius();
+        grid.rebuild(bees, left - avoidRadius, right - left + 2 * avoidRadius, worldHeight);
+        next.resize(count);
+        for (int i = 0; i < count; i++) {
+            agents[bees.colony[i]].move(bees, next, i, worldWidth, worldHeight, grid, foodSources, foodIndex);
+        }
+        bees.resize(count);
+
+        for (int i = 0; i < count; i++) {
+            if (next.pendingDeposit[i] > 0) {
+                hives.get(next.colony[i]).depositFood(next.pendingDeposit[i]);
+                next.pendingDeposit[i] = 0;
+            }
+        }
+        return count;
+    }
+
+    // Each claim is (bee, source); the bee index is kept to match the grant.
+    private ByteBuffer[] sendClaims(int count) {
+        startMessages();
+        Arrays.fill(claimCount, 0);
+        for (int i = 0; i < count; i++) {
+            int food = next.pendingFood[i];
+            if (food == -1) continue;
+
+            int owner = tileOf(foodSources.get(food).getX());
+            if (claimCount[owner] == claimedAgents[owner].length) {
+                claimedAgents[owner] = Arrays.copyOf(claimedAgents[owner], claimCount[owner] * 2);
+            }
+            claimedAgents[owner][claimCount[owner]++] = i;
+            reserve(owner, 4).putInt(food);
+            countItem(owner);
+        }
+        return finishMessages();
+    }
+
+    // Claims are answered in tile order, then in the order they were made,
+    // exactly as Region settles them. Every answer also lists the sources
+    // that ran out, so each tile can drop them from its food index.
+    private ByteBuffer[] settleClaims(ByteBuffer[] claims) {
+        int[][] granted = new int[tileCount][];
+        depletedCount = 0;
+        for (int t = 0; t < tileCount; t++) {
+            ByteBuffer in = claims[t];
+            granted[t] = new int[in.getInt()];
+            for (int k = 0; k < granted[t].length; k++) {
+                int source = in.getInt();
+                FoodSource food = foodSources.get(source);
+                boolean wasDepleted = food.isDepleted();
+                granted[t][k] = Agent.harvest(food);
+                if (!wasDepleted && food.isDepleted()) addDepleted(source);
+            }
+        }
+
+        startMessages();
+        for (int t = 0; t < tileCount; t++) {
+            ByteBuffer out = reserve(t, 4 * (granted[t].length + depletedCount + 1));
+            out.putInt(0, granted[t].length);
+            for (int amount : granted[t]) out.putInt(amount);
+            out.putInt(depletedCount);
+            for (int d = 0; d < depletedCount; d++) out.putInt(depleted[d]);
+        }
+        return finishMessages();
+    }
+
+    private void applyGrants(ByteBuffer[] grants) {
+        for (int t = 0; t < tileCount; t++) {
+            ByteBuffer in = grants[t];
+            int count = in.getInt();
+            for (int k = 0; k < count; k++) {
+                int i = claimedAgents[t][k], amount = in.getInt();
+                if (amount > 0) agents[next.colony[i]].collect(next, i, next.pendingFood[i], amount);
+                next.pendingFood[i] = -1;
+            }
+            for (int d = in.getInt(); d > 0; d--) {
+                foodIndex.remove(in.getInt());
+            }
+        }
+    }
+
+    private ByteBuffer[] depart() {
+        startMessages();
+        for (int i = 0; i < next.size(); ) {
+            int destination = tileOf(next.x[i]);
+            if (destination == index) {
+                i++;
+            } else {
+                writeBee(destination, next, i);
+                next.swapRemove(i);
+            }
+        }
+
+        AgentPopulation previous = bees;
+        bees = next;
+        next = previous;
+        return finishMessages();
+    }
+
+    private void arrive(ByteBuffer[] arrivals) {
+        for (int t = 0; t < tileCount; t++) {
+            if (t != index) readBees(arrivals[t]);
+        }
+    }
+
+    // Every message starts with the number of items in it.
+    private void startMessages() {
+        for (int t = 0; t < tileCount; t++) {
+            outgoing[t].clear();
+            outgoing[t].putInt(0);
+        }
+    }
+
+    private ByteBuffer[] finishMessages() {
+        for (ByteBuffer out : outgoing) out.flip();
+        return outgoing;
+    }
+
+    private void countItem(int tile) {
+        outgoing[tile].putInt(0, outgoing[tile].getInt(0) + 1);
+    }
+
+    private void writeBees(int tile, AgentPopulation from) {
+        for (int i = 0; i < from.size(); i++) writeBee(tile, from, i);
+    }
+
+    private void writeBee(int tile, AgentPopulation from, int i) {
+        from.write(reserve(tile, AgentPopulation.ENCODED_BYTES), i);
+        countItem(tile);
+    }
+
+    private void readBees(ByteBuffer in) {
+        for (int k = in.getInt(); k > 0; k--) bees.read(in);
+    }
+
+    private ByteBuffer reserve(int tile, int bytes) {
+        ByteBuffer out = outgoing[tile];
+        if (out.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(2 * out.capacity(), out.position() + bytes));
+            out.flip();
+            larger.put(out);
+            outgoing[tile] = out = larger;
+        }
+        return out;
+    }
+
+    private void addDepleted(int source) {
+        if (depletedCount == depleted.length) depleted = Arrays.copyOf(depleted, depletedCount * 2);
+        depleted[depletedCount++] = source;
+    }
+
+    int tileOf(int x) {
+        return ColonySimulation.regionOf(x, stripWidth, tileCount);
+    }
+
+    public boolean ownsFood(int source) {
+        return tileOf(foodSources.get(source).getX()) == index;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getPopulation() {
+        return bees.size();
+    }
+
+    public long getFoodInFlight() {
+        long carried = 0;
+        for (int i = 0; i < bees.size(); i++) carried += bees.carriedFood[i];
+        return carried;
+    }
+
+    public List<Hive> getHives() {
+        return hives;
+    }
+
+    public List<FoodSource> getFoodSources() {
+        return foodSources;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    // The checksum of this tile's bees, as ColonySimulation hashes a region.
+    public long beeChecksum() {
+        return bees.checksum();
+    }
+}
@@ -0,0 +1,12 @@
+package simulation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+// Moves one message between every pair of tiles. outgoing[t] is read from
+// position 0 to its limit and sent to tile t; the result holds the message
+// each tile sent to this one, ready to read. A tile's message to itself is
+// handed back unsent.
+public interface TileExchange {
+    ByteBuffer[] exchange(ByteBuffer[] outgoing) throws IOException;
+}
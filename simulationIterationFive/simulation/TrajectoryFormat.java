@@ -0,0 +1,51 @@
+package simulation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+final class TrajectoryFormat {
+    static final int DATA_MAGIC = 0x42454554;
+    static final int INDEX_MAGIC = 0x42454549;
+    static final int VERSION = 1;
+    static final int DATA_HEADER_BYTES = 8;
+    static final int INDEX_HEADER_BYTES = 24;
+    static final int INDEX_ENTRY_BYTES = 16;
+
+    static final byte KEYFRAME = 1, DELTA = 2;
+    static final int MOVED = 1, STATE_CHANGED = 2, FOOD_CHANGED = 4;
+
+    private TrajectoryFormat() {
+    }
+
+    static Path indexPath(Path data) {
+        return data.resolveSibling(data.getFileName() + ".idx");
+    }
+
+    static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static void putSigned(ByteBuffer buffer, int value) {
+        putVarint(buffer, (value << 1) ^ (value >> 31));
+    }
+
+    static int getVarint(ByteBuffer buffer) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IOException("Malformed varint in trajectory");
+    }
+
+    static int getSigned(ByteBuffer buffer) throws IOException {
+        int value = getVarint(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,41 @@
+package simulation;
+
+import java.util.Arrays;
+
+public class TrajectoryFrame {
+    long tick;
+    int count;
+    int[] x = new int[0], y = new int[0];
+    byte[] state = new byte[0];
+    int[] carriedFood = new int[0];
+
+    void capture(AgentPopulation bees, long tick) {
+        this.tick = tick;
+        resize(bees.size());
+        System.arraycopy(bees.x, 0, x, 0, count);
+        System.arraycopy(bees.y, 0, y, 0, count);
+        System.arraycopy(bees.state, 0, state, 0, count);
+        System.arraycopy(bees.carriedFood, 0, carriedFood, 0, count);
+    }
+
+    void resize(int count) {
+        this.count = count;
+        if (x.length < count) {
+            int capacity = Math.max(count, x.length * 2);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            state = Arrays.copyOf(state, capacity);
+            carriedFood = Arrays.copyOf(carriedFood, capacity);
+        }
+    }
+
+    public long getTick() { return tick; }
+    public int getCount() { return count; }
+    public int getX(int i) { return x[i]; }
+    public int getY(int i) { return y[i]; }
+    public int getCarriedFood(int i) { return carriedFood[i]; }
+
+    public Agent.State getState(int i) {
+        return Agent.STATES[state[i]];
+    }
+}
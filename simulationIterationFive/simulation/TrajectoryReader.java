@@ -0,0 +1,153 @@
+package simulation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static simulation.TrajectoryFormat.*;
+
+public class TrajectoryReader implements AutoCloseable {
+    private final FileChannel data;
+    private final FileChannel index;
+    private final long firstTick;
+    private final long frameCount;
+    private final long dataSize;
+    private final ByteBuffer entries = ByteBuffer.allocate(2 * INDEX_ENTRY_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private ByteBuffer records = ByteBuffer.allocate(0);
+    private final TrajectoryFrame frame = new TrajectoryFrame();
+    private boolean positioned = false;
+
+    public TrajectoryReader(Path path) throws IOException {
+        data = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            index = FileChannel.open(indexPath(path), StandardOpenOption.READ);
+        } catch (IOException e) {
+            data.close();
+            throw e;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(index, header, 0);
+        header.flip();
+        if (header.getInt() != INDEX_MAGIC || header.getInt() != VERSION) {
+            close();
+            throw new IOException("Not a trajectory index: " + indexPath(path));
+        }
+        firstTick = header.getLong();
+
+        ByteBuffer dataHeader = ByteBuffer.allocate(DATA_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(data, dataHeader, 0);
+        dataHeader.flip();
+        if (dataHeader.getInt() != DATA_MAGIC || dataHeader.getInt() != VERSION) {
+            close();
+            throw new IOException("Not a trajectory: " + path);
+        }
+
+        frameCount = (index.size() - INDEX_HEADER_BYTES) / INDEX_ENTRY_BYTES;
+        dataSize = data.size();
+    }
+
+    public long getFirstTick() {
+        return firstTick;
+    }
+
+    public long getLastTick() {
+        return firstTick + frameCount - 1;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    public TrajectoryFrame read(long tick) throws IOException {
+        long frameNumber = tick - firstTick;
+        if (frameNumber < 0 || frameNumber >= frameCount) {
+            throw new IllegalArgumentException("Tick " + tick + " is outside the recording ["
+                    + firstTick + ", " + getLastTick() + "]");
+        }
+        if (positioned && tick == frame.tick) return frame;
+
+        entries.clear();
+        if (frameNumber + 1 == frameCount) entries.limit(INDEX_ENTRY_BYTES);
+        readFully(index, entries, INDEX_HEADER_BYTES + frameNumber * INDEX_ENTRY_BYTES);
+        entries.flip();
+        long recordOffset = entries.getLong();
+        long keyframeOffset = entries.getLong();
+        long recordEnd = entries.hasRemaining() ? entries.getLong() : dataSize;
+
+        long from = positioned && tick == frame.tick + 1 ? recordOffset : keyframeOffset;
+        int length = (int) (recordEnd - from);
+        if (records.capacity() < length) {
+            records = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        records.clear().limit(length);
+        readFully(data, records, from);
+        records.flip();
+
+        positioned = false;
+        frame.tick = -1;
+        while (records.hasRemaining() && frame.tick != tick) {
+            decode(records);
+        }
+        if (frame.tick != tick) {
+            throw new IOException("Trajectory index does not match tick " + tick);
+        }
+        positioned = true;
+        return frame;
+    }
+
+    private void decode(ByteBuffer records) throws IOException {
+        byte type = records.get();
+        long tick = records.getLong();
+        int count = records.getInt();
+
+        if (type == KEYFRAME) {
+            frame.resize(count);
+            for (int i = 0; i < count; i++) {
+                frame.x[i] = getSigned(records);
+                frame.y[i] = getSigned(records);
+                frame.state[i] = records.get();
+                frame.carriedFood[i] = getVarint(records);
+            }
+        } else if (type == DELTA) {
+            if (count != frame.count) {
+                throw new IOException("Trajectory delta at tick " + tick + " does not follow a keyframe");
+            }
+            int i = getVarint(records);
+            while (i < count) {
+                int flags = records.get();
+                if ((flags & MOVED) != 0) {
+                    frame.x[i] += getSigned(records);
+                    frame.y[i] += getSigned(records);
+                }
+                if ((flags & STATE_CHANGED) != 0) frame.state[i] = records.get();
+                if ((flags & FOOD_CHANGED) != 0) frame.carriedFood[i] = getVarint(records);
+                i += getVarint(records) + 1;
+            }
+        } else {
+            throw new IOException("Unknown trajectory record type " + type + " at tick " + tick);
+        }
+        frame.tick = tick;
+    }
+
+    @Override
+    public void close() throws IOException {
+        positioned = false;
+        try {
+            data.close();
+        } finally {
+            index.close();
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer target, long position) throws IOException {
+        while (target.hasRemaining()) {
+            int read = channel.read(target, position);
+            if (read < 0) throw new IOException("Unexpected end of trajectory");
+            position += read;
+        }
+    }
+}
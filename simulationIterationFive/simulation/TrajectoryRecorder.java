@@ -0,0 +1,221 @@
+package simulation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import static simulation.TrajectoryFormat.*;
+
+public class TrajectoryRecorder implements SimulationListener, AutoCloseable {
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 600;
+    private static final int QUEUE_FRAMES = 8;
+    private static final int FLUSH_BYTES = 1 << 20;
+    private static final int INDEX_BUFFER_ENTRIES = 4096;
+
+    private final FileChannel data;
+    private final FileChannel index;
+    private final int keyframeInterval;
+    private final BlockingQueue<TrajectoryFrame> pending = new ArrayBlockingQueue<>(QUEUE_FRAMES);
+    private final BlockingQueue<TrajectoryFrame> free = new ArrayBlockingQueue<>(QUEUE_FRAMES + 2);
+    private final TrajectoryFrame end = new TrajectoryFrame();
+    private final Thread writer;
+    private long nextTick = -1;
+    private volatile boolean recording = true;
+    private volatile IOException failure;
+
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(FLUSH_BYTES * 2).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer indexBuffer = ByteBuffer.allocateDirect(INDEX_BUFFER_ENTRIES * INDEX_ENTRY_BYTES)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    private long dataPosition = DATA_HEADER_BYTES;
+    private long keyframeOffset;
+    private TrajectoryFrame previous;
+
+    public TrajectoryRecorder(Path path) throws IOException {
+        this(path, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    public TrajectoryRecorder(Path path, int keyframeInterval) throws IOException {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("Keyframe interval must be at least 1");
+        }
+        this.keyframeInterval = keyframeInterval;
+        data = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        index = FileChannel.open(indexPath(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        for (int i = 0; i < QUEUE_FRAMES + 2; i++) {
+            free.add(new TrajectoryFrame());
+        }
+        writer = new Thread(this::write, "trajectory-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void ticked(SimulationEngine engine) {
+        if (!recording) return;
+
+        long tick = engine.getTickCount();
+        if (nextTick != -1 && tick != nextTick) {
+            stop();
+            return;
+        }
+        nextTick = tick + 1;
+
+        try {
+            TrajectoryFrame frame = free.take();
+            if (!recording) return;
+            frame.capture(engine.getAgents(), tick);
+            pending.put(frame);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void simulationReset(SimulationEngine engine) {
+        stop();
+    }
+
+    public boolean isRecording() {
+        return recording && failure == null;
+    }
+
+    public void stop() {
+        if (!recording) return;
+
+        recording = false;
+        try {
+            pending.put(end);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        stop();
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) throw failure;
+    }
+
+    private void write() {
+        try (FileChannel dataChannel = data; FileChannel indexChannel = index) {
+            ByteBuffer header = ByteBuffer.allocate(DATA_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(DATA_MAGIC).putInt(VERSION).flip();
+            writeFully(dataChannel, header);
+
+            long frames = 0;
+            TrajectoryFrame frame;
+            while ((frame = pending.take()) != end) {
+                if (frames == 0) {
+                    writeIndexHeader(indexChannel, frame.tick);
+                }
+                encode(frame, frames % keyframeInterval == 0 || previous.count != frame.count);
+                frames++;
+
+                if (previous != null) free.add(previous);
+                previous = frame;
+
+                if (buffer.position() >= FLUSH_BYTES || !indexBuffer.hasRemaining() || pending.isEmpty()) {
+                    flush(dataChannel, indexChannel);
+                }
+            }
+            flush(dataChannel, indexChannel);
+            dataChannel.force(true);
+            indexChannel.force(true);
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            recording = false;
+            pending.clear();
+            for (int i = free.size(); i < QUEUE_FRAMES + 2; i++) {
+                free.offer(new TrajectoryFrame());
+            }
+        }
+    }
+
+    private void encode(TrajectoryFrame frame, boolean keyframe) {
+        ensureCapacity(18 + frame.count * 24);
+        long recordOffset = dataPosition + buffer.position();
+        if (keyframe) keyframeOffset = recordOffset;
+
+        indexBuffer.putLong(recordOffset).putLong(keyframeOffset);
+        buffer.put(keyframe ? KEYFRAME : DELTA).putLong(frame.tick).putInt(frame.count);
+
+        if (keyframe) {
+            for (int i = 0; i < frame.count; i++) {
+                putSigned(buffer, frame.x[i]);
+                putSigned(buffer, frame.y[i]);
+                buffer.put(frame.state[i]);
+                putVarint(buffer, frame.carriedFood[i]);
+            }
+            return;
+        }
+
+        int last = -1;
+        for (int i = 0; i < frame.count; i++) {
+            int moveX = frame.x[i] - previous.x[i];
+            int moveY = frame.y[i] - previous.y[i];
+            int flags = (moveX != 0 || moveY != 0 ? MOVED : 0)
+                    | (frame.state[i] != previous.state[i] ? STATE_CHANGED : 0)
+                    | (frame.carriedFood[i] != previous.carriedFood[i] ? FOOD_CHANGED : 0);
+            if (flags == 0) continue;
+
+            putVarint(buffer, i - last - 1);
+            buffer.put((byte) flags);
+            if ((flags & MOVED) != 0) {
+                putSigned(buffer, moveX);
+                putSigned(buffer, moveY);
+            }
+            if ((flags & STATE_CHANGED) != 0) buffer.put(frame.state[i]);
+            if ((flags & FOOD_CHANGED) != 0) putVarint(buffer, frame.carriedFood[i]);
+            last = i;
+        }
+        putVarint(buffer, frame.count - last - 1);
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (buffer.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(buffer.position() + bytes).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+    }
+
+    private void flush(FileChannel dataChannel, FileChannel indexChannel) throws IOException {
+        buffer.flip();
+        dataPosition += buffer.remaining();
+        writeFully(dataChannel, buffer);
+        buffer.clear();
+
+        indexBuffer.flip();
+        writeFully(indexChannel, indexBuffer);
+        indexBuffer.clear();
+    }
+
+    private void writeIndexHeader(FileChannel indexChannel, long firstTick) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(INDEX_MAGIC).putInt(VERSION).putLong(firstTick).putInt(keyframeInterval).putInt(0).flip();
+        writeFully(indexChannel, header);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+    }
+}
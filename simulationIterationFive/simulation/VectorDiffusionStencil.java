@@ -0,0 +1,29 @@
+package simulation;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorSpecies;
+
+class VectorDiffusionStencil extends DiffusionStencil {
+    private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+    private static final int LANES = FLOATS.length();
+
+    @Override
+    String getName() {
+        return "vector-" + LANES;
+    }
+
+    @Override
+    void diffuse(float[] source, float[] target, int start, int end, int above, int below, float self, float side) {
+        int k = start;
+        for (; k + LANES <= end; k += LANES) {
+            FloatVector neighbours = FloatVector.fromArray(FLOATS, source, k + above)
+                    .add(FloatVector.fromArray(FLOATS, source, k + below))
+                    .add(FloatVector.fromArray(FLOATS, source, k - 1))
+                    .add(FloatVector.fromArray(FLOATS, source, k + 1));
+            FloatVector.fromArray(FLOATS, source, k).mul(self).add(neighbours.mul(side)).intoArray(target, k);
+        }
+        for (; k < end; k++) {
+            target[k] = ScalarDiffusionStencil.cell(source, k, above, below, self, side);
+        }
+    }
+}
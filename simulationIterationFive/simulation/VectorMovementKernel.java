@@ -0,0 +1,200 @@
+package simulation;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+import static jdk.incubator.vector.VectorOperators.EQ;
+import static jdk.incubator.vector.VectorOperators.GE;
+import static jdk.incubator.vector.VectorOperators.LE;
+import static jdk.incubator.vector.VectorOperators.NE;
+
+// Every lane operation mirrors the scalar expression in Agent, without
+// fused multiply-adds, so results are identical to the scalar kernel.
+// Repulsion terms are computed in lanes but summed in neighbour order.
+// Masks only ever come from compares and are only used by blends; mask
+// logic and mask casts are not intrinsified by every JDK with this API.
+class VectorMovementKernel extends MovementKernel {
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS =
+            VectorSpecies.of(int.class, VectorShape.forBitSize(DOUBLES.vectorBitSize() / 2));
+    private static final int LANES = DOUBLES.length();
+    private static final double OTHER = 0, SEARCH = 1, HOME = 2;
+
+    @Override
+    public String getName() {
+        return "vector-" + LANES;
+    }
+
+    @Override
+    void steer(AgentPopulation previous, AgentPopulation bees, int from, int to, Agent agent, SpatialGrid grid) {
+        double speed = agent.getSpeed();
+        int avoidRadius = agent.getAvoidRadius();
+        int hiveX = agent.getHive().getX(), hiveY = agent.getHive().getY();
+        double[] kind = new double[LANES], repulseX = new double[LANES], repulseY = new double[LANES];
+        double[] termX = new double[LANES], termY = new double[LANES];
+        double[] homeX = new double[LANES], homeY = new double[LANES];
+        int[] searchStep = new int[LANES];
+
+        int base = from;
+        for (; base + LANES <= to; base += LANES) {
+            boolean any = false;
+            for (int lane = 0; lane < LANES; lane++) {
+                int i = base + lane;
+                kind[lane] = OTHER;
+                searchStep[lane] = 0;
+                repulseX[lane] = 0;
+                repulseY[lane] = 0;
+                if (previous.state[i] == Agent.SEARCHING) {
+                    kind[lane] = SEARCH;
+                    searchStep[lane] = 1;
+                    repulse(bees.x[i], bees.y[i], grid, avoidRadius, repulseX, repulseY, lane, termX, termY);
+                    any = true;
+                } else if (previous.state[i] == Agent.RETURNING) {
+                    // The lanes have no exact atan2, cos or sin, so the heading
+                    // is worked out per bee as Agent.moveTowardHive does.
+                    double angle = Math.atan2(hiveY - bees.y[i], hiveX - bees.x[i]);
+                    homeX[lane] = speed * Math.cos(angle);
+                    homeY[lane] = speed * Math.sin(angle);
+                    kind[lane] = HOME;
+                    any = true;
+                }
+            }
+            if (!any) continue;
+
+            DoubleVector kinds = DoubleVector.fromArray(DOUBLES, kind, 0);
+            VectorMask<Double> search = kinds.compare(EQ, SEARCH);
+            DoubleVector dx = DoubleVector.fromArray(DOUBLES, bees.dx, base);
+            DoubleVector dy = DoubleVector.fromArray(DOUBLES, bees.dy, base);
+            IntVector x = IntVector.fromArray(INTS, bees.x, base);
+            IntVector y = IntVector.fromArray(INTS, bees.y, base);
+
+            dx = dx.blend(dx.add(DoubleVector.fromArray(DOUBLES, repulseX, 0).mul(0.1)), search);
+            dy = dy.blend(dy.add(DoubleVector.fromArray(DOUBLES, repulseY, 0).mul(0.1)), search);
+            DoubleVector magnitude = dx.mul(dx).add(dy.mul(dy)).sqrt();
+            VectorMask<Double> scaled = magnitude.blend(0.0, kinds.compare(NE, SEARCH)).compare(NE, 0);
+            dx = dx.blend(dx.div(magnitude).mul(speed), scaled);
+            dy = dy.blend(dy.div(magnitude).mul(speed), scaled);
+
+            VectorMask<Double> home = kinds.compare(EQ, HOME);
+            dx = dx.blend(DoubleVector.fromArray(DOUBLES, homeX, 0), home);
+            dy = dy.blend(DoubleVector.fromArray(DOUBLES, homeY, 0), home);
+
+            // Adding a zero step leaves a bee that is not moving where it is.
+            VectorMask<Double> still = kinds.compare(EQ, OTHER);
+            x = toInts(toDoubles(x).add(dx.blend(0.0, still)));
+            y = toInts(toDoubles(y).add(dy.blend(0.0, still)));
+            IntVector searchTimer = IntVector.fromArray(INTS, bees.searchTimer, base)
+                    .sub(IntVector.fromArray(INTS, searchStep, 0));
+
+            dx.intoArray(bees.dx, base);
+            dy.intoArray(bees.dy, base);
+            x.intoArray(bees.x, base);
+            y.intoArray(bees.y, base);
+            searchTimer.intoArray(bees.searchTimer, base);
+        }
+
+        for (; base < to; base++) {
+            ScalarMovementKernel.steer(previous, bees, base, agent, grid);
+        }
+    }
+
+    private static void repulse(int x, int y, SpatialGrid grid, int avoidRadius, double[] repulseX,
+                                double[] repulseY, int lane, double[] termX, double[] termY) {
+        int[] orderX = grid.agentX(), orderY = grid.agentY();
+        int minColumn = grid.column(x - avoidRadius), maxColumn = grid.column(x + avoidRadius);
+        int minRow = grid.row(y - avoidRadius), maxRow = grid.row(y + avoidRadius);
+        int radiusSquared = avoidRadius * avoidRadius;
+        IntVector selfX = IntVector.broadcast(INTS, x), selfY = IntVector.broadcast(INTS, y);
+        double sumX = 0, sumY = 0;
+
+        // Cells of one grid row are contiguous in the grid order, so each row
+        // of the neighbourhood is a single run of candidates. The bee itself
+        // is at distance zero and skipped like any other overlapping bee.
+        for (int row = minRow; row <= maxRow; row++) {
+            int k = grid.cellStart(minColumn, row), end = grid.cellEnd(maxColumn, row);
+            for (; k + LANES <= end; k += LANES) {
+                IntVector offsetX = selfX.sub(IntVector.fromArray(INTS, orderX, k));
+                IntVector offsetY = selfY.sub(IntVector.fromArray(INTS, orderY, k));
+                DoubleVector distanceSquared = toDoubles(offsetX.mul(offsetX).add(offsetY.mul(offsetY)));
+                VectorMask<Double> far = distanceSquared.blend(radiusSquared, distanceSquared.compare(EQ, 0))
+                        .compare(GE, radiusSquared);
+                if (far.allTrue()) continue;
+
+                // Lanes that are too far away contribute +0.0, which leaves the sums unchanged.
+                DoubleVector distance = distanceSquared.sqrt();
+                DoubleVector falloff = DoubleVector.broadcast(DOUBLES, avoidRadius).sub(distance);
+                toDoubles(offsetX).div(distance).mul(falloff).blend(0.0, far).intoArray(termX, 0);
+                toDoubles(offsetY).div(distance).mul(falloff).blend(0.0, far).intoArray(termY, 0);
+                for (int n = 0; n < LANES; n++) {
+                    sumX += termX[n];
+                    sumY += termY[n];
+                }
+            }
+            for (; k < end; k++) {
+                int offsetX = x - orderX[k];
+                int offsetY = y - orderY[k];
+                int distanceSquared = offsetX * offsetX + offsetY * offsetY;
+                if (distanceSquared < radiusSquared && distanceSquared != 0) {
+                    double distance = Math.sqrt(distanceSquared);
+                    sumX += (offsetX / distance) * (avoidRadius - distance);
+                    sumY += (offsetY / distance) * (avoidRadius - distance);
+                }
+            }
+        }
+
+        repulseX[lane] = sumX;
+        repulseY[lane] = sumY;
+    }
+
+    @Override
+    void bounce(AgentPopulation previous, AgentPopulation bees, int from, int to, Agent agent, int width, int height) {
+        double speed = agent.getSpeed();
+        double[] bouncing = new double[LANES];
+        int base = from;
+        for (; base + LANES <= to; base += LANES) {
+            boolean any = false;
+            for (int lane = 0; lane < LANES; lane++) {
+                boolean free = isBouncing(previous, bees, base + lane);
+                bouncing[lane] = free ? SEARCH : OTHER;
+                any |= free;
+            }
+            if (!any) continue;
+
+            DoubleVector x = toDoubles(IntVector.fromArray(INTS, bees.x, base));
+            DoubleVector y = toDoubles(IntVector.fromArray(INTS, bees.y, base));
+            DoubleVector dx = DoubleVector.fromArray(DOUBLES, bees.dx, base);
+            DoubleVector dy = DoubleVector.fromArray(DOUBLES, bees.dy, base);
+
+            // Multiplying by -1 negates exactly, and a lane past both walls still flips once.
+            DoubleVector one = DoubleVector.broadcast(DOUBLES, 1.0);
+            DoubleVector flipX = one.blend(-1.0, x.compare(LE, 0)).blend(-1.0, x.compare(GE, width - Agent.SIZE));
+            DoubleVector flipY = one.blend(-1.0, y.compare(LE, 0)).blend(-1.0, y.compare(GE, height - Agent.SIZE));
+            DoubleVector bouncedX = dx.mul(flipX);
+            DoubleVector bouncedY = dy.mul(flipY);
+
+            DoubleVector magnitude = bouncedX.mul(bouncedX).add(bouncedY.mul(bouncedY)).sqrt();
+            VectorMask<Double> scaled = magnitude.compare(NE, 0);
+            bouncedX = bouncedX.blend(bouncedX.div(magnitude).mul(speed), scaled);
+            bouncedY = bouncedY.blend(bouncedY.div(magnitude).mul(speed), scaled);
+
+            VectorMask<Double> free = DoubleVector.fromArray(DOUBLES, bouncing, 0).compare(EQ, SEARCH);
+            dx.blend(bouncedX, free).intoArray(bees.dx, base);
+            dy.blend(bouncedY, free).intoArray(bees.dy, base);
+        }
+
+        for (; base < to; base++) {
+            ScalarMovementKernel.bounce(previous, bees, base, agent, width, height);
+        }
+    }
+
+    private static DoubleVector toDoubles(IntVector vector) {
+        return (DoubleVector) vector.castShape(DOUBLES, 0);
+    }
+
+    private static IntVector toInts(DoubleVector vector) {
+        return (IntVector) vector.castShape(INTS, 0);
+    }
+}
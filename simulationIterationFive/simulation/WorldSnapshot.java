@@ -0,0 +1,307 @@
+package simulation;
+
+import metrics.Histogram;
+import metrics.MetricsRegistry;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.List;
+
+public final class WorldSnapshot {
+    private static final int DENSITY_CELL_SIZE = 4;
+    private static final int MAX_DENSITY_CELLS = 512 * 512;
+    private static final int FOOD_CELL_SIZE = 64;
+    private static final int FOOD_MARGIN = 40;
+    private static final double MIN_SPRITE_PIXELS = 2;
+    private static final Color OUTSIDE_WORLD = new Color(0, 150, 0);
+    private static final Histogram PAINT_DURATION = MetricsRegistry.DEFAULT.histogram(
+            "bee_paint_duration_seconds", "Time taken to draw one frame of the world");
+
+    private final long tick;
+    private final long createdNanos;
+    private final long tickNanos;
+    private volatile boolean drawn = false;
+    private final int count;
+    private final int[] stateCounts = new int[Agent.STATES.length];
+    private final int sprites;
+    private final int[] x, y;
+    private final byte[] state;
+    private final int[] previousX, previousY;
+    private final long foodVersion;
+    private final FoodSource[] foodSources;
+    private final int[] foodX, foodY;
+    private final CellIndex foodCells;
+    private final int[] foodQuantities;
+    private final Hive hive;
+    private final int storedFood;
+    private final long foodInFlight;
+    private final int worldWidth, worldHeight;
+    private final DensityGrid density;
+    // Density maps alternate between these two grids, handed from each
+    // snapshot to the next, so the one on screen is never refilled.
+    private final DensityGrid[] densityGrids;
+
+    // The part of the world on screen, as last reported by the panel.
+    static final class View {
+        final Rectangle area;
+        final double scale;
+
+        View(Camera camera, int viewWidth, int viewHeight) {
+            double left = camera.toWorldX(0), top = camera.toWorldY(0);
+            double right = camera.toWorldX(viewWidth), bottom = camera.toWorldY(viewHeight);
+            area = new Rectangle((int) Math.floor(left) - Agent.SIZE, (int) Math.floor(top) - Agent.SIZE,
+                    (int) Math.ceil(right - left) + 2 * Agent.SIZE, (int) Math.ceil(bottom - top) + 2 * Agent.SIZE);
+            scale = camera.getScale();
+        }
+    }
+
+    // Decides here, on the simulation thread, whether the frame is drawn as
+    // sprites or as a density map. Sprites copy only the bees in view; the
+    // density map is accumulated now so drawing it never walks the bees.
+    private WorldSnapshot(SimulationEngine engine, WorldSnapshot previous, long tickNanos, int densityThreshold,
+                          View view) {
+        AgentPopulation agents = engine.getAgents();
+
+        this.tick = engine.getTickCount();
+        this.createdNanos = System.nanoTime();
+        this.tickNanos = tickNanos;
+        this.count = agents.size();
+        this.worldWidth = engine.getWorldWidth();
+        this.worldHeight = engine.getWorldHeight();
+
+        Rectangle area = view == null ? new Rectangle(-Agent.SIZE, -Agent.SIZE,
+                worldWidth + 2 * Agent.SIZE, worldHeight + 2 * Agent.SIZE) : view.area;
+        double scale = view == null ? 1 : view.scale;
+        long carried = 0;
+        for (int i = 0; i < count; i++) {
+            stateCounts[agents.state[i]]++;
+            carried += agents.carriedFood[i];
+        }
+        this.foodInFlight = carried;
+
+        int[] inView = visibleBees(engine, agents, area);
+        int visible = inView.length;
+        this.densityGrids = previous != null ? previous.densityGrids
+                : new DensityGrid[] {new DensityGrid(), new DensityGrid()};
+        if (visible > densityThreshold || scale * Agent.SIZE < MIN_SPRITE_PIXELS) {
+            Rectangle covered = area.intersection(new Rectangle(0, 0, worldWidth, worldHeight));
+            double coveredArea = Math.max(0, covered.width) * (double) Math.max(0, covered.height);
+            int cellSize = Math.max(DENSITY_CELL_SIZE, (int) Math.ceil(Math.sqrt(coveredArea / MAX_DENSITY_CELLS)));
+            this.density = densityGrids[previous != null && previous.density == densityGrids[0] ? 1 : 0];
+            density.accumulate(agents, inView, visible, area, cellSize, worldWidth, worldHeight);
+            this.sprites = 0;
+            this.x = this.y = this.previousX = this.previousY = null;
+            this.state = null;
+        } else {
+            this.density = null;
+            this.sprites = visible;
+            this.x = new int[visible];
+            this.y = new int[visible];
+            this.state = new byte[visible];
+            // The engine's other buffer still holds every bee as of the tick before.
+            AgentPopulation before = engine.getPreviousAgents();
+            boolean continuous = previous != null && previous.tick == tick - 1 && previous.count == count
+                    && before.size() == count;
+            this.previousX = continuous ? new int[visible] : null;
+            this.previousY = continuous ? new int[visible] : null;
+            for (int k = 0; k < visible; k++) {
+                int i = inView[k];
+                x[k] = agents.x[i];
+                y[k] = agents.y[i];
+                state[k] = agents.state[i];
+                if (continuous) {
+                    previousX[k] = before.x[i];
+                    previousY[k] = before.y[i];
+                }
+            }
+        }
+
+        this.foodVersion = engine.getFoodVersion();
+        if (previous != null && previous.foodVersion == foodVersion
+                && previous.worldWidth == worldWidth && previous.worldHeight == worldHeight) {
+            this.foodSources = previous.foodSources;
+            this.foodX = previous.foodX;
+            this.foodY = previous.foodY;
+            this.foodCells = previous.foodCells;
+        } else {
+            List<FoodSource> food = engine.getFoodSources();
+            this.foodSources = food.toArray(new FoodSource[0]);
+            this.foodX = new int[foodSources.length];
+            this.foodY = new int[foodSources.length];
+            for (int f = 0; f < foodSources.length; f++) {
+                foodX[f] = foodSources[f].getX();
+                foodY[f] = foodSources[f].getY();
+            }
+            this.foodCells = CellIndex.build(foodX, foodY, foodSources.length, FOOD_CELL_SIZE, worldWidth, worldHeight);
+        }
+        this.foodQuantities = new int[foodSources.length];
+        for (int f = 0; f < foodSources.length; f++) {
+            foodQuantities[f] = foodSources[f].getQuantity();
+        }
+        this.hive = engine.getHive();
+        this.storedFood = hive.getStoredFood();
+    }
+
+    // Visits only the cells of the engine's grid that overlap the area, grown
+    // by a step because the grid was built before the last move. Bees in and
+    // around the hive are scanned for instead: resting bees are not in the
+    // grid, and bees leaving the hive jump to its edge.
+    private static int[] visibleBees(SimulationEngine engine, AgentPopulation agents, Rectangle area) {
+        SpatialGrid grid = engine.getGrid();
+        Hive hive = engine.getHive();
+        int reach = hive.getRadius() + 3;
+        Rectangle hiveArea = new Rectangle(hive.getX() - reach, hive.getY() - reach, 2 * reach + 1, 2 * reach + 1);
+
+        int[] visible = new int[64];
+        int found = 0;
+        if (grid == null || hiveArea.intersects(area)) {
+            for (int i = 0, count = agents.size(); i < count; i++) {
+                int x = agents.x[i], y = agents.y[i];
+                if (area.contains(x, y) && (grid == null || hiveArea.contains(x, y))) {
+                    if (found == visible.length) visible = Arrays.copyOf(visible, 2 * found);
+                    visible[found++] = i;
+                }
+            }
+        }
+        if (grid == null) return Arrays.copyOf(visible, found);
+
+        int step = (int) Math.ceil(engine.getParameters().getSpeed()) + 1;
+        int minColumn = grid.column(area.x - step), maxColumn = grid.column(area.x + area.width + step);
+        int minRow = grid.row(area.y - step), maxRow = grid.row(area.y + area.height + step);
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                for (int k = grid.cellStart(column, row), end = grid.cellEnd(column, row); k < end; k++) {
+                    int i = grid.agentAt(k);
+                    int x = agents.x[i], y = agents.y[i];
+                    if (area.contains(x, y) && !hiveArea.contains(x, y)) {
+                        if (found == visible.length) visible = Arrays.copyOf(visible, 2 * found);
+                        visible[found++] = i;
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(visible, found);
+    }
+
+    public static WorldSnapshot capture(SimulationEngine engine, WorldSnapshot previous, long tickNanos,
+                                        int densityThreshold) {
+        return new WorldSnapshot(engine, previous, tickNanos, densityThreshold, null);
+    }
+
+    static WorldSnapshot capture(SimulationEngine engine, WorldSnapshot previous, long tickNanos,
+                                 int densityThreshold, View view) {
+        return new WorldSnapshot(engine, previous, tickNanos, densityThreshold, view);
+    }
+
+    public void draw(Graphics g, long nowNanos, Camera camera, int viewWidth, int viewHeight) {
+        long start = System.nanoTime();
+        PaintEvent event = new PaintEvent();
+        event.begin();
+        Graphics2D world = (Graphics2D) g.create();
+        try {
+            world.clipRect(0, 0, viewWidth, viewHeight);
+            camera.apply(world);
+
+            Rectangle view = world.getClipBounds();
+            world.setColor(OUTSIDE_WORLD);
+            if (view.x < 0) world.fillRect(view.x, view.y, -view.x, view.height);
+            if (view.y < 0) world.fillRect(view.x, view.y, view.width, -view.y);
+            if (view.x + view.width > worldWidth) world.fillRect(worldWidth, view.y, view.x + view.width - worldWidth, view.height);
+            if (view.y + view.height > worldHeight) world.fillRect(view.x, worldHeight, view.width, view.y + view.height - worldHeight);
+
+            draw(world, nowNanos);
+        } finally {
+            world.dispose();
+            PAINT_DURATION.observeNanos(System.nanoTime() - start);
+        }
+        if (event.shouldCommit()) {
+            event.agents = count;
+            event.densityMap = isDensityMap();
+            event.tick = tick;
+            event.commit();
+        }
+    }
+
+    public void draw(Graphics g, long nowNanos) {
+        drawn = true;
+        Rectangle view = g.getClipBounds();
+        if (view == null) view = new Rectangle(0, 0, worldWidth, worldHeight);
+
+        hive.draw(g, storedFood);
+
+        if (density != null) {
+            density.draw(g);
+        } else {
+            double alpha = previousX == null ? 1
+                    : Math.min(1.0, Math.max(0.0, (nowNanos - createdNanos) / (double) tickNanos));
+            for (int k = 0; k < sprites; k++) {
+                drawBee(g, k, alpha);
+            }
+        }
+
+        int minColumn = foodCells.column(view.x - FOOD_MARGIN);
+        int maxColumn = foodCells.column(view.x + view.width + FOOD_MARGIN);
+        int minRow = foodCells.row(view.y - FOOD_MARGIN);
+        int maxRow = foodCells.row(view.y + view.height + FOOD_MARGIN);
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                for (int k = foodCells.cellStart(column, row), end = foodCells.cellEnd(column, row); k < end; k++) {
+                    int f = foodCells.itemAt(k);
+                    foodSources[f].draw(g, foodQuantities[f]);
+                }
+            }
+        }
+    }
+
+    private void drawBee(Graphics g, int i, double alpha) {
+        if (previousX == null) {
+            SpriteAtlas.drawBee(g, state[i], x[i], y[i]);
+            return;
+        }
+
+        int fromX = previousX[i], fromY = previousY[i];
+        if (Math.abs(x[i] - fromX) > Agent.SIZE || Math.abs(y[i] - fromY) > Agent.SIZE) {
+            SpriteAtlas.drawBee(g, state[i], x[i], y[i]);
+        } else {
+            SpriteAtlas.drawBee(g, state[i],
+                fromX + (int) Math.round((x[i] - fromX) * alpha),
+                fromY + (int) Math.round((y[i] - fromY) * alpha));
+        }
+    }
+
+    boolean isDrawn() {
+        return drawn;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int countAgents(Agent.State state) {
+        return stateCounts[state.ordinal()];
+    }
+
+    public int getStoredFood() {
+        return storedFood;
+    }
+
+    public long getFoodInFlight() {
+        return foodInFlight;
+    }
+
+    public int getWorldWidth() {
+        return worldWidth;
+    }
+
+    public int getWorldHeight() {
+        return worldHeight;
+    }
+
+    public boolean isDensityMap() {
+        return density != null;
+    }
+}
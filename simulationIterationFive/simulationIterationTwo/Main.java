@@ -5,6 +5,6 @@ import gui.BeeSimulationGUI;
 
 public class Main {
     public static void main(String[] args) {
-        new BeeSimulationGUI();
+        BeeSimulationGUI.main(args);
     }
 }
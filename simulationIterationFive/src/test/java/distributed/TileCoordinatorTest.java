@@ -0,0 +1,67 @@
+package distributed;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TileCoordinatorTest {
+    private static final int TILES = 3;
+
+    @Test
+    void workersOverLoopbackReproduceTheSingleProcessColony() throws Exception {
+        TileCoordinator coordinator = new TileCoordinator(new String[] {
+                "--tiles", String.valueOf(TILES), "--colonies", "3", "--bees", "300", "--food", "20",
+                "--width", "1500", "--height", "800", "--ticks", "400", "--seed", "7", "--report-every", "1000"});
+
+        ExecutorService executor = Executors.newFixedThreadPool(TILES);
+        try (ServerSocketChannel listener = ServerSocketChannel.open()
+                .bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), TILES)) {
+            int port = ((InetSocketAddress) listener.getLocalAddress()).getPort();
+            Future<?>[] workers = new Future<?>[TILES];
+            for (int t = 0; t < TILES; t++) {
+                workers[t] = executor.submit(() -> {
+                    TileWorker.run(port);
+                    return null;
+                });
+            }
+
+            long checksum = coordinator.run(listener, List.of());
+            for (Future<?> worker : workers) worker.get(30, TimeUnit.SECONDS);
+            assertEquals(coordinator.runInProcess(), checksum);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void exitedWorkerFailsTheRunInsteadOfHanging() throws Exception {
+        TileCoordinator coordinator = new TileCoordinator(new String[] {"--tiles", "2"});
+        String java = ProcessHandle.current().info().command()
+                .orElse(System.getProperty("java.home") + "/bin/java");
+        Process worker = new ProcessBuilder(java, "-version").start();
+        worker.waitFor();
+
+        try (ServerSocketChannel listener = ServerSocketChannel.open()
+                .bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            assertThrows(IOException.class, () -> coordinator.run(listener, List.of(worker)));
+        }
+    }
+
+    @Test
+    void unknownOptionsAreRejected() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new TileCoordinator(new String[] {"--tile", "4"}));
+        assertEquals("Unknown option: --tile", e.getMessage());
+    }
+}
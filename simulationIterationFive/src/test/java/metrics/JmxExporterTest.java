@@ -0,0 +1,38 @@
+package metrics;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JmxExporterTest {
+    @Test
+    void labelledMetricsGetQuotedKeyProperties() throws JMException {
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter counter = registry.counter("bee_test_total", "Help", "state", "a,b=\"c\"", "colony", "1");
+
+        ObjectName name = JmxExporter.objectName("bees", counter);
+        assertEquals("bees", name.getDomain());
+        assertEquals("Counter", name.getKeyProperty("type"));
+        assertEquals("bee_test_total", name.getKeyProperty("name"));
+        assertEquals("a,b=\"c\"", ObjectName.unquote(name.getKeyProperty("state")));
+        assertEquals("1", ObjectName.unquote(name.getKeyProperty("colony")));
+    }
+
+    @Test
+    void metricsAddedLaterAreExported() throws JMException {
+        MetricsRegistry registry = new MetricsRegistry();
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        registry.counter("bee_first_total", "Help").add(2);
+        JmxExporter.register(registry, server, "bees");
+        Counter later = registry.counter("bee_second_total", "Help", "state", "x");
+        later.add(5);
+
+        assertEquals(2L, server.getAttribute(new ObjectName("bees:type=Counter,name=bee_first_total"), "Count"));
+        assertEquals(5L, server.getAttribute(JmxExporter.objectName("bees", later), "Count"));
+    }
+}
@@ -0,0 +1,90 @@
+package metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MetricsRegistryTest {
+    @Test
+    void sameNameAndLabelsReturnTheSameInstrument() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter first = registry.counter("bee_test_total", "Help", "state", "a");
+        assertSame(first, registry.counter("bee_test_total", "Help", "state", "a"));
+        registry.counter("bee_test_total", "Help", "state", "b");
+        assertEquals(2, registry.getMetrics().size());
+    }
+
+    @Test
+    void typeClashesAndInvalidNamesAreRejected() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("bee_test_total", "Help");
+        assertThrows(IllegalArgumentException.class, () -> registry.histogram("bee_test_total", "Help"));
+        assertThrows(IllegalArgumentException.class, () -> registry.gauge("bee_test_total", "Help", () -> 1));
+
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("1bees", "Help"));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("bee-test", "Help"));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("bee_test", "Help", "le", "1"));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("bee_test", "Help", "state"));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("bee_test", "Help", "st-ate", "a"));
+    }
+
+    @Test
+    void registeringAGaugeAgainReplacesItsSupplier() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Gauge first = registry.gauge("bee_test", "Help", () -> 1);
+        Gauge second = registry.gauge("bee_test", "Help", () -> 2);
+        assertSame(first, second);
+        assertEquals(2, first.getValue());
+    }
+
+    @Test
+    void listenersSeeExistingAndLaterMetrics() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("bee_first_total", "Help");
+        List<String> seen = new ArrayList<>();
+        registry.addListener(metric -> seen.add(metric.getName()));
+        registry.counter("bee_second_total", "Help");
+        registry.counter("bee_second_total", "Help");
+        assertEquals(List.of("bee_first_total", "bee_second_total"), seen);
+    }
+
+    @Test
+    void histogramBucketsAreCumulative() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Histogram histogram = registry.histogram("bee_test_seconds", "Help", new double[] {0.001, 0.01});
+        histogram.observeNanos(500_000);
+        histogram.observeNanos(1_000_000);
+        histogram.observeNanos(5_000_000);
+        histogram.observeNanos(2_000_000_000L);
+
+        String text = PrometheusFormat.write(registry.getMetrics());
+        assertEquals(String.join("\n",
+                "# HELP bee_test_seconds Help",
+                "# TYPE bee_test_seconds histogram",
+                "bee_test_seconds_bucket{le=\"0.001\"} 2",
+                "bee_test_seconds_bucket{le=\"0.01\"} 3",
+                "bee_test_seconds_bucket{le=\"+Inf\"} 4",
+                "bee_test_seconds_sum 2.0065",
+                "bee_test_seconds_count 4",
+                ""), text);
+        assertEquals(4, histogram.getCount());
+    }
+
+    @Test
+    void labelValuesAndHelpAreEscaped() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("bee_test_total", "Line one\nback\\slash", "path", "C:\\bees\n\"queen\"").add(3);
+
+        String text = PrometheusFormat.write(registry.getMetrics());
+        assertEquals(String.join("\n",
+                "# HELP bee_test_total Line one\\nback\\\\slash",
+                "# TYPE bee_test_total counter",
+                "bee_test_total{path=\"C:\\\\bees\\n\\\"queen\\\"\"} 3",
+                ""), text);
+    }
+}
@@ -0,0 +1,52 @@
+package metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrometheusServerTest {
+    @Test
+    void getServesTheRegistry() throws IOException, InterruptedException {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("bee_test_total", "Help").add(7);
+
+        try (PrometheusServer server = PrometheusServer.start(registry, 0)) {
+            assertTrue(server.getPort() > 0);
+            HttpClient client = HttpClient.newHttpClient();
+
+            HttpResponse<String> metrics = client.send(request(server, PrometheusServer.PATH, "GET"),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, metrics.statusCode());
+            assertEquals(PrometheusFormat.CONTENT_TYPE, metrics.headers().firstValue("Content-Type").orElse(null));
+            assertEquals(PrometheusFormat.write(registry.getMetrics()), metrics.body());
+            assertTrue(metrics.body().contains("bee_test_total 7\n"));
+
+            assertEquals(404, client.send(request(server, "/other", "GET"),
+                    HttpResponse.BodyHandlers.discarding()).statusCode());
+            assertEquals(405, client.send(request(server, PrometheusServer.PATH, "DELETE"),
+                    HttpResponse.BodyHandlers.discarding()).statusCode());
+            assertEquals(200, client.send(request(server, PrometheusServer.PATH, "HEAD"),
+                    HttpResponse.BodyHandlers.discarding()).statusCode());
+            assertEquals(200, client.send(request(server, PrometheusServer.PATH, "GET"),
+                    HttpResponse.BodyHandlers.discarding()).statusCode());
+        }
+    }
+
+    // The server binds only the loopback address, which localhost may not resolve to first.
+    private static HttpRequest request(PrometheusServer server, String path, String method) {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        String host = loopback instanceof Inet6Address ? "[" + loopback.getHostAddress() + "]" : loopback.getHostAddress();
+        return HttpRequest.newBuilder(URI.create("http://" + host + ":" + server.getPort() + path))
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+}
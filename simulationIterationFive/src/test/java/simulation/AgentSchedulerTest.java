@@ -0,0 +1,73 @@
+package simulation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AgentSchedulerTest {
+    private static final int TICKS = 600;
+    private static final int CHECK_EVERY = 50;
+
+    @Test
+    void parkedBeesMatchMovingEveryBeeEveryTick() {
+        SimulationEngine scheduled = engine(11L);
+        SimulationEngine reference = engine(11L);
+        UnscheduledTick unscheduled = new UnscheduledTick(reference);
+
+        for (int tick = 1; tick <= TICKS; tick++) {
+            scheduled.tick();
+            unscheduled.tick();
+            if (tick % CHECK_EVERY == 0) {
+                assertEquals(unscheduled.checksum(), scheduled.checksum(), "diverged at tick " + tick);
+                assertEquals(unscheduled.agents.count(Agent.State.RESTING), scheduled.getRestingCount());
+            }
+        }
+    }
+
+    private static SimulationEngine engine(long seed) {
+        SimulationEngine engine = new SimulationEngine(1000, 500, new Hive(500, 250, 100), seed);
+        engine.setFoodSources(20);
+        engine.setPopulation(2000);
+        return engine;
+    }
+
+    // The tick as it ran before timed states were parked: every bee is moved
+    // and resolved on every tick.
+    private static final class UnscheduledTick {
+        private final SimulationEngine engine;
+        private final SpatialGrid grid = new SpatialGrid(30);
+        private final FoodIndex foodIndex = new FoodIndex(30);
+        private AgentPopulation agents;
+        private AgentPopulation next = new AgentPopulation();
+        private long tickCount;
+
+        UnscheduledTick(SimulationEngine engine) {
+            this.engine = engine;
+            agents = engine.getAgents();
+            next.resize(agents.size());
+            foodIndex.rebuild(engine.getFoodSources(), engine.getWorldWidth(), engine.getWorldHeight());
+            tickCount = engine.getTickCount();
+        }
+
+        void tick() {
+            int width = engine.getWorldWidth(), height = engine.getWorldHeight();
+            grid.rebuild(agents, width, height);
+            for (int i = 0; i < agents.size(); i++) {
+                engine.getAgent().move(agents, next, i, width, height, grid, engine.getFoodSources(), foodIndex);
+            }
+            for (int i = 0; i < agents.size(); i++) {
+                engine.getAgent().resolvePending(next, i, engine.getFoodSources(), foodIndex, engine.getEvents());
+            }
+
+            AgentPopulation previous = agents;
+            agents = next;
+            next = previous;
+            tickCount++;
+        }
+
+        long checksum() {
+            return SimulationEngine.checksum(agents, tickCount, engine.getFoodSources(),
+                    engine.getHive().getStoredFood());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package simulation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CheckpointTest {
+    private static final int FOOD_COUNT_OFFSET = 4 + 4 + 8 + 8 + 4 + 4 + 8 + 4 * 4 + 8 + 4 + 5 * 4 + 4 + 3 * 8;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restoredRunContinuesLikeTheOriginal() throws IOException {
+        SimulationEngine original = engine(7L);
+        original.run(300);
+        Path path = directory.resolve("world.ckpt");
+        Checkpoint.save(original, path);
+        long saved = original.checksum();
+
+        SimulationEngine restored = engine(1L);
+        Checkpoint.restore(restored, path);
+        assertEquals(saved, restored.checksum());
+        assertEquals(original.getTickCount(), restored.getTickCount());
+        assertEquals(original.getHive().getStoredFood(), restored.getHive().getStoredFood());
+
+        original.run(300);
+        restored.run(300);
+        assertEquals(original.checksum(), restored.checksum());
+    }
+
+    @Test
+    void pheromoneTrailsAreRestoredWithTheRun() throws IOException {
+        SimulationEngine original = engine(7L);
+        original.setPheromoneField(PheromoneField.forWorld(1000, 500));
+        original.run(300);
+        Path path = directory.resolve("world.ckpt");
+        Checkpoint.save(original, path);
+
+        SimulationEngine restored = engine(1L);
+        Checkpoint.restore(restored, path);
+        assertArrayEquals(original.getPheromoneField().cells(), restored.getPheromoneField().cells());
+
+        original.run(300);
+        restored.run(300);
+        assertEquals(original.checksum(), restored.checksum());
+        assertArrayEquals(original.getPheromoneField().cells(), restored.getPheromoneField().cells());
+
+        Checkpoint.save(engine(7L), path);
+        Checkpoint.restore(restored, path);
+        assertNull(restored.getPheromoneField());
+    }
+
+    @Test
+    void corruptCheckpointLeavesTheEngineUntouched() throws IOException {
+        SimulationEngine original = engine(7L);
+        original.run(300);
+        Path path = directory.resolve("world.ckpt");
+        Checkpoint.save(original, path);
+
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 20] ^= 1;
+        Files.write(path, bytes);
+
+        SimulationEngine target = engine(3L);
+        target.run(50);
+        long before = target.checksum();
+        IOException error = assertThrows(IOException.class, () -> Checkpoint.restore(target, path));
+        assertEquals("Checkpoint checksum mismatch in " + path, error.getMessage());
+        assertEquals(before, target.checksum());
+    }
+
+    @Test
+    void truncatedCheckpointIsRejected() throws IOException {
+        Path path = directory.resolve("world.ckpt");
+        Checkpoint.save(engine(7L), path);
+
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 9));
+        assertThrows(IOException.class, () -> Checkpoint.restore(engine(3L), path));
+    }
+
+    @Test
+    void implausibleCountsAreRejectedBeforeAllocating() throws IOException {
+        Path path = directory.resolve("world.ckpt");
+        Checkpoint.save(engine(7L), path);
+
+        // The food source count follows the fixed part of the header.
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.putInt(FOOD_COUNT_OFFSET, Integer.MAX_VALUE);
+        Files.write(path, bytes.array());
+
+        IOException error = assertThrows(IOException.class, () -> Checkpoint.restore(engine(3L), path));
+        assertEquals("Corrupt checkpoint header in " + path, error.getMessage());
+    }
+
+    private static SimulationEngine engine(long seed) {
+        SimulationEngine engine = new SimulationEngine(1000, 500, new Hive(500, 250, 100), seed);
+        engine.setFoodSources(10);
+        engine.setPopulation(1500);
+        return engine;
+    }
+}
@@ -0,0 +1,50 @@
+package simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ColonySimulationTest {
+    private static final int TICKS = 600;
+
+    @Test
+    void resultsDoNotDependOnParallelism() {
+        ColonySimulation sequential = colony(1);
+        ColonySimulation parallel = colony(3);
+        sequential.run(TICKS);
+        parallel.run(TICKS);
+
+        assertEquals(sequential.checksum(), parallel.checksum());
+        assertEquals(sequential.getPopulation(), parallel.getPopulation());
+    }
+
+    @Test
+    void beesAndFoodAreConserved() {
+        ColonySimulation colony = colony(2);
+        long initialFood = remainingFood(colony);
+        int population = colony.getPopulation();
+        colony.run(TICKS);
+
+        long stored = 0;
+        for (Hive hive : colony.getHives()) stored += hive.getStoredFood();
+        assertEquals(population, colony.getPopulation());
+        assertEquals(initialFood, stored + remainingFood(colony) + colony.getFoodInFlight());
+    }
+
+    private static ColonySimulation colony(int parallelism) {
+        List<Hive> hives = ColonySimulation.spreadHives(4, 2000, 1000, 40);
+        ColonySimulation colony = new ColonySimulation(2000, 1000, hives, 4, 42L);
+        colony.setPopulation(500);
+        colony.setFoodSources(40);
+        colony.setParallelism(parallelism);
+        return colony;
+    }
+
+    private static long remainingFood(ColonySimulation colony) {
+        long remaining = 0;
+        for (FoodSource food : colony.getFoodSources()) remaining += food.getQuantity();
+        return remaining;
+    }
+}
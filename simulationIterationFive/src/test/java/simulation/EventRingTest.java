@@ -0,0 +1,77 @@
+package simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventRingTest {
+    @Test
+    void eventsWrapAroundInOrder() {
+        EventRing ring = new EventRing(4);
+        long next = 0;
+        for (int round = 0; round < 10; round++) {
+            for (int k = 0; k < 3; k++, next++) {
+                assertTrue(ring.offer(next, -next));
+            }
+            List<long[]> events = drain(ring);
+            assertEquals(3, events.size());
+            for (int k = 0; k < 3; k++) {
+                long expected = next - 3 + k;
+                assertEquals(expected, events.get(k)[0]);
+                assertEquals(-expected, events.get(k)[1]);
+            }
+        }
+    }
+
+    @Test
+    void fullRingRefusesUntilDrained() {
+        EventRing ring = new EventRing(4);
+        for (int k = 0; k < 4; k++) assertTrue(ring.offer(k, k));
+        assertFalse(ring.offer(4, 4));
+
+        assertEquals(1, ring.drain((header, payload) -> { }, 1));
+        assertTrue(ring.offer(4, 4));
+        assertEquals(4, drain(ring).size());
+    }
+
+    @Test
+    void multiSlotMessagesArriveWholeAcrossTheEnd() {
+        EventRing ring = new EventRing(8);
+        for (int k = 0; k < 6; k++) assertTrue(ring.offer(k, k));
+        drain(ring);
+
+        // Three slots starting at slot 6, so the message wraps to slot 0.
+        long[] message = {10, 11, 12, 13, 14, 15};
+        assertTrue(ring.offer(message));
+        List<long[]> events = drain(ring);
+        assertEquals(3, events.size());
+        for (int k = 0; k < 3; k++) {
+            assertEquals(message[2 * k], events.get(k)[0]);
+            assertEquals(message[2 * k + 1], events.get(k)[1]);
+        }
+    }
+
+    @Test
+    void multiSlotMessageThatDoesNotFitLeavesNothingBehind() {
+        EventRing ring = new EventRing(8);
+        for (int k = 0; k < 6; k++) assertTrue(ring.offer(k, k));
+        assertFalse(ring.offer(new long[] {20, 21, 22, 23, 24, 25}));
+        assertFalse(ring.offer(new long[18]));
+
+        List<long[]> events = drain(ring);
+        assertEquals(6, events.size());
+        assertEquals(5, events.get(5)[0]);
+        assertTrue(drain(ring).isEmpty());
+    }
+
+    private static List<long[]> drain(EventRing ring) {
+        List<long[]> events = new ArrayList<>();
+        ring.drain((header, payload) -> events.add(new long[] {header, payload}), Integer.MAX_VALUE);
+        return events;
+    }
+}
@@ -0,0 +1,59 @@
+package simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FoodPlacementTest {
+    @Test
+    void requestsThatCannotFitFailFast() {
+        SimulationEngine engine = new SimulationEngine(300, 200, new Hive(150, 100, 20), 1L);
+        engine.setFoodSources(3);
+        List<FoodSource> before = List.copyOf(engine.getFoodSources());
+
+        assertTimeoutPreemptively(Duration.ofSeconds(2), () ->
+                assertThrows(IllegalArgumentException.class, () -> engine.setFoodSources(1_000_000)));
+        assertTimeoutPreemptively(Duration.ofSeconds(2), () ->
+                assertThrows(IllegalArgumentException.class, () -> engine.setFoodSources(200)));
+        assertEquals(before, engine.getFoodSources());
+    }
+
+    @Test
+    void negativeCountsAndTinyWorldsAreRejected() {
+        Hive hive = new Hive(10, 10, 5);
+        assertThrows(IllegalArgumentException.class,
+                () -> FoodPlacement.place(new SplittableRandom(1), -1, 1000, 500, hive));
+        assertThrows(IllegalArgumentException.class,
+                () -> FoodPlacement.place(new SplittableRandom(1), 1, 20, 500, hive));
+        assertEquals(0, FoodPlacement.place(new SplittableRandom(1), 0, 20, 500, hive).length);
+    }
+
+    @Test
+    void denseRequestsKeepSpacingAndHiveClearance() {
+        Hive hive = new Hive(500, 250, 100);
+        int count = 200;
+        int[] positions = FoodPlacement.place(new SplittableRandom(3), count, 1000, 500, hive);
+        assertEquals(2 * count, positions.length);
+
+        int clearance = hive.getRadius() + FoodPlacement.HIVE_CLEARANCE;
+        for (int f = 0; f < count; f++) {
+            int x = positions[2 * f], y = positions[2 * f + 1];
+            assertTrue(x >= FoodPlacement.MARGIN && x <= 1000 - FoodPlacement.MARGIN, "x of source " + f);
+            assertTrue(y >= FoodPlacement.MARGIN && y <= 500 - FoodPlacement.MARGIN, "y of source " + f);
+            long hiveX = x - hive.getX(), hiveY = y - hive.getY();
+            assertTrue(hiveX * hiveX + hiveY * hiveY >= (long) clearance * clearance, "source " + f + " is in the hive");
+            for (int g = 0; g < f; g++) {
+                long offsetX = x - positions[2 * g], offsetY = y - positions[2 * g + 1];
+                assertTrue(offsetX * offsetX + offsetY * offsetY >= FoodPlacement.SPACING * FoodPlacement.SPACING,
+                        "sources " + g + " and " + f + " are too close");
+            }
+        }
+    }
+}
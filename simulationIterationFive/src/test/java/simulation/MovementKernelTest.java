@@ -0,0 +1,101 @@
+package simulation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MovementKernelTest {
+    private static final int TICKS = 800;
+    private static final int CHECK_EVERY = 50;
+    // Agent.move on seed 42 before the kernels existed; 3000 bees, 1500 ticks.
+    private static final long GOLDEN_CHECKSUM = 0x2279b0e9d4e7b6eeL;
+
+    @Test
+    void vectorApiIsAvailableToTests() {
+        assertTrue(MovementKernel.create().getName().startsWith("vector"),
+                "expected the build to run tests with --add-modules jdk.incubator.vector");
+    }
+
+    @Test
+    void scalarKernelMatchesAgentMove() {
+        assertParity(MovementKernel.scalar(), 1000, 500, 700, 20, 1);
+    }
+
+    @Test
+    void vectorKernelMatchesAgentMove() {
+        assertParity(MovementKernel.create(), 1000, 500, 700, 20, 1);
+    }
+
+    @Test
+    void vectorKernelMatchesAgentMoveInACrowdedWorld() {
+        assertParity(MovementKernel.create(), 400, 300, 2001, 5, 1);
+    }
+
+    @Test
+    void vectorKernelMatchesAgentMoveWhenParallel() {
+        assertParity(MovementKernel.create(), 1000, 500, 2503, 30, 3);
+    }
+
+    @Test
+    void agentMoveMatchesGoldenChecksum() {
+        assertGolden(null, 1);
+    }
+
+    @Test
+    void scalarKernelMatchesGoldenChecksum() {
+        assertGolden(MovementKernel.scalar(), 1);
+    }
+
+    @Test
+    void vectorKernelMatchesGoldenChecksumWhenParallel() {
+        assertGolden(MovementKernel.create(), 4);
+    }
+
+    private static void assertGolden(MovementKernel kernel, int parallelism) {
+        SimulationEngine engine = engine(1000, 500, 3000, 20, parallelism, kernel, 42L);
+        engine.run(1500);
+        assertEquals(GOLDEN_CHECKSUM, engine.checksum(),
+                (kernel == null ? "agent" : kernel.getName()) + " moved away from the golden checksum");
+    }
+
+    private static void assertParity(MovementKernel kernel, int width, int height, int population, int foodCount,
+                                     int parallelism) {
+        SimulationEngine expected = engine(width, height, population, foodCount, 1, null, 20L);
+        SimulationEngine actual = engine(width, height, population, foodCount, parallelism, kernel, 20L);
+
+        for (int tick = 1; tick <= TICKS; tick++) {
+            expected.tick();
+            actual.tick();
+            if (tick % CHECK_EVERY == 0) {
+                assertEquals(expected.checksum(), actual.checksum(), kernel.getName() + " diverged at tick " + tick);
+            }
+        }
+
+        AgentPopulation want = expected.getAgents(), got = actual.getAgents();
+        assertEquals(want.size(), got.size());
+        for (int i = 0; i < want.size(); i++) {
+            assertEquals(want.x[i], got.x[i]);
+            assertEquals(want.y[i], got.y[i]);
+            assertEquals(want.dx[i], got.dx[i]);
+            assertEquals(want.dy[i], got.dy[i]);
+            assertEquals(want.state[i], got.state[i]);
+        }
+        assertArrayEquals(quantities(expected), quantities(actual));
+    }
+
+    private static SimulationEngine engine(int width, int height, int population, int foodCount, int parallelism,
+                                           MovementKernel kernel, long seed) {
+        SimulationEngine engine = new SimulationEngine(width, height, new Hive(width / 2, height / 2, 100), seed);
+        engine.setParallelism(parallelism);
+        engine.setMovementKernel(kernel);
+        engine.setFoodSources(foodCount);
+        engine.setPopulation(population);
+        return engine;
+    }
+
+    private static int[] quantities(SimulationEngine engine) {
+        return engine.getFoodSources().stream().mapToInt(FoodSource::getQuantity).toArray();
+    }
+}
@@ -0,0 +1,124 @@
+package simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PheromoneFieldTest {
+    private static final int UPDATES = 200;
+
+    @Test
+    void vectorStencilMatchesScalarStencil() {
+        DiffusionStencil vector = DiffusionStencil.create();
+        assertTrue(vector.getName().startsWith("vector"),
+                "expected the build to run tests with --add-modules jdk.incubator.vector");
+
+        // 519 columns, so every row ends in a partial lane group.
+        PheromoneField expected = field(1037, 389, 2, 0.01, DiffusionStencil.scalar());
+        PheromoneField actual = field(1037, 389, 2, 0.01, vector);
+        deposit(expected, 1037, 389, 5);
+        deposit(actual, 1037, 389, 5);
+
+        for (int update = 1; update <= UPDATES; update++) {
+            expected.update();
+            actual.update();
+            if (update % 50 == 0) {
+                deposit(expected, 1037, 389, update);
+                deposit(actual, 1037, 389, update);
+            }
+        }
+        assertArrayEquals(expected.cells(), actual.cells());
+    }
+
+    @Test
+    void wallsKeepPheromoneInTheWorld() {
+        // Wide enough for the stencil, and a single column that only has walls.
+        for (int width : new int[] {400, 3}) {
+            PheromoneField field = field(width, 200, 4, 0, DiffusionStencil.create());
+            field.deposit(0, 0, 1000);
+            field.deposit(width - 1, 199, 500);
+            field.deposit(width / 2, 100, 250);
+
+            for (int update = 0; update < UPDATES; update++) {
+                field.update();
+            }
+            assertEquals(1750, total(field), 1750 * 1e-4, width + " wide");
+        }
+    }
+
+    @Test
+    void forkedUpdateMatchesSequentialUpdate() {
+        // More rows than one task takes, so the update really splits.
+        PheromoneField sequential = field(600, 1100, 1, 0.01, DiffusionStencil.create());
+        PheromoneField forked = field(600, 1100, 1, 0.01, DiffusionStencil.create());
+        deposit(sequential, 600, 1100, 9);
+        deposit(forked, 600, 1100, 9);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int update = 0; update < 50; update++) {
+                sequential.update(null);
+                forked.update(pool);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertArrayEquals(sequential.cells(), forked.cells());
+    }
+
+    @Test
+    void searchingBeesTurnUpTheGradient() {
+        Hive hive = new Hive(500, 250, 100);
+        Agent agent = new Agent(hive, 1L);
+        AgentPopulation bees = new AgentPopulation();
+        int i = agent.spawn(bees, false);
+        bees.x[i] = 200;
+        bees.y[i] = 100;
+        bees.dx[i] = 0;
+        bees.dy[i] = 0;
+
+        PheromoneField field = PheromoneField.forWorld(1000, 500);
+        field.deposit(200 + field.getCellSize(), 100, 10);
+        agent.followPheromones(bees, i, field);
+        assertTrue(bees.dx[i] > 0, "bee did not turn towards the trail");
+        assertEquals(0, bees.dy[i]);
+
+        SimulationEngine plain = engine(null);
+        SimulationEngine trails = engine(PheromoneField.forWorld(1000, 500));
+        plain.run(600);
+        trails.run(600);
+        assertNotEquals(plain.checksum(), trails.checksum());
+    }
+
+    private static PheromoneField field(int width, int height, int cellSize, double evaporation,
+                                        DiffusionStencil stencil) {
+        return new PheromoneField(width, height, cellSize, 0.2, evaporation, 2.0, stencil);
+    }
+
+    private static void deposit(PheromoneField field, int width, int height, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int k = 0; k < 500; k++) {
+            field.deposit(random.nextInt(width), random.nextInt(height), (float) random.nextDouble(1, 100));
+        }
+    }
+
+    private static double total(PheromoneField field) {
+        double total = 0;
+        for (float value : field.cells()) total += value;
+        return total;
+    }
+
+    private static SimulationEngine engine(PheromoneField pheromones) {
+        SimulationEngine engine = new SimulationEngine(1000, 500, new Hive(500, 250, 100), 11L);
+        engine.setPheromoneField(pheromones);
+        engine.setFoodSources(10);
+        engine.setPopulation(1000);
+        return engine;
+    }
+}
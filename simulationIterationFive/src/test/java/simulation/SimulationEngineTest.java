@@ -0,0 +1,46 @@
+package simulation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class SimulationEngineTest {
+    private static final int TICKS = 600;
+    private static final int CHECK_EVERY = 50;
+
+    @Test
+    void parallelTicksMatchSequentialTicks() {
+        SimulationEngine sequential = engine(5000, 1, 42L);
+        SimulationEngine parallel = engine(5000, 4, 42L);
+
+        for (int tick = 1; tick <= TICKS; tick++) {
+            sequential.tick();
+            parallel.tick();
+            if (tick % CHECK_EVERY == 0) {
+                assertEquals(sequential.checksum(), parallel.checksum(), "diverged at tick " + tick);
+            }
+        }
+    }
+
+    @Test
+    void seedDeterminesTheRun() {
+        SimulationEngine first = engine(1000, 1, 7L);
+        SimulationEngine second = engine(1000, 1, 7L);
+        SimulationEngine other = engine(1000, 1, 8L);
+        first.run(TICKS);
+        second.run(TICKS);
+        other.run(TICKS);
+
+        assertEquals(first.checksum(), second.checksum());
+        assertNotEquals(first.checksum(), other.checksum());
+    }
+
+    private static SimulationEngine engine(int population, int parallelism, long seed) {
+        SimulationEngine engine = new SimulationEngine(1000, 500, new Hive(500, 250, 100), seed);
+        engine.setParallelism(parallelism);
+        engine.setFoodSources(20);
+        engine.setPopulation(population);
+        return engine;
+    }
+}
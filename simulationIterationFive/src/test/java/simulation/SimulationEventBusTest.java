@@ -0,0 +1,102 @@
+package simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimulationEventBusTest {
+    private static final int SOURCES = 10, QUANTITY = 1_000_000;
+    // More than the ring holds, so the tail of them is folded.
+    private static final int COLLECTIONS = 70_000;
+
+    @Test
+    void backlogIsFoldedAndDeliveredInOrder() throws InterruptedException {
+        SimulationEventBus bus = new SimulationEventBus();
+        RecordingListener listener = new RecordingListener();
+        bus.addListener(listener);
+
+        bus.setTick(0);
+        bus.publishReset();
+        assertTrue(listener.blocked.await(5, TimeUnit.SECONDS), "consumer never picked up the reset");
+
+        List<FoodSource> sources = new ArrayList<>();
+        for (int f = 0; f < SOURCES; f++) {
+            sources.add(new FoodSource(100 + 20 * f, 100, 10, QUANTITY, "FS" + (f + 1), SimulationEngine.foodColor(f)));
+        }
+        bus.publishSources(sources);
+        for (int k = 0; k < COLLECTIONS; k++) {
+            bus.publishCollection(k % SOURCES, 1, false);
+        }
+        for (int stored = 1; stored <= 3; stored++) {
+            bus.publishDeposit(1, stored);
+        }
+        bus.publishCollection(3, 0, true);
+        bus.publishCollection(7, 0, true);
+        bus.setTick(SimulationEngine.TICKS_PER_SECOND);
+        bus.publishSecond(1);
+        bus.setTick(2 * SimulationEngine.TICKS_PER_SECOND);
+        bus.publishSecond(2);
+
+        listener.release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (listener.finished.getCount() > 0 && System.nanoTime() < deadline) {
+            bus.publishBacklog();
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        assertTrue(listener.finished.await(0, TimeUnit.SECONDS), "backlog was never delivered");
+
+        // A deposit is reported once its batch or the next second ends, so
+        // only its position before that second is fixed.
+        List<String> events = listener.events;
+        assertEquals(5, events.size(), events.toString());
+        assertEquals("reset", events.get(0));
+        assertTrue(events.indexOf("depleted 3") < events.indexOf("depleted 7"), events.toString());
+        assertTrue(events.contains("deposited 3 at 2"), events.toString());
+        int[] expected = new int[SOURCES];
+        Arrays.fill(expected, QUANTITY - COLLECTIONS / SOURCES);
+        assertEquals("second 2 stored 3 " + Arrays.toString(expected), events.get(4));
+    }
+
+    private static final class RecordingListener implements SimulationEventListener {
+        final List<String> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(1);
+
+        @Override
+        public void simulationReset() {
+            events.add("reset");
+            blocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void foodDeposited(int seconds, int storedFood) {
+            events.add("deposited " + storedFood + " at " + seconds);
+        }
+
+        @Override
+        public void foodSourceDepleted(int sourceIndex, int seconds) {
+            events.add("depleted " + sourceIndex);
+        }
+
+        @Override
+        public void secondElapsed(int seconds, int storedFood, int[] foodQuantities) {
+            events.add("second " + seconds + " stored " + storedFood + " " + Arrays.toString(foodQuantities));
+            finished.countDown();
+        }
+    }
+}
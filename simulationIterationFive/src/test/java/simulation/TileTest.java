@@ -0,0 +1,121 @@
+package simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TileTest {
+    private static final int WIDTH = 2000, HEIGHT = 1000;
+    private static final int HIVES = 4, BEES_PER_COLONY = 500, FOOD = 40;
+    private static final int TILES = 4, TICKS = 600;
+    private static final long SEED = 42L;
+
+    @Test
+    void tilesReproduceTheSingleProcessColony() throws Exception {
+        ColonySimulation colony = new ColonySimulation(WIDTH, HEIGHT, hives(), TILES, SEED);
+        colony.setPopulation(BEES_PER_COLONY);
+        colony.setFoodSources(FOOD);
+        colony.run(TICKS);
+
+        Tile[] tiles = new Tile[TILES];
+        for (int k = 0; k < TILES; k++) {
+            tiles[k] = new Tile(k, TILES, WIDTH, HEIGHT, hives(), SEED);
+            tiles[k].setPopulation(BEES_PER_COLONY);
+            tiles[k].setFoodSources(FOOD);
+        }
+        run(tiles, new InMemoryExchange(TILES));
+
+        long[] beeChecksums = new long[TILES];
+        int[] foodQuantities = new int[FOOD];
+        int[] storedFood = new int[HIVES];
+        int population = 0;
+        for (Tile tile : tiles) {
+            assertEquals(TICKS, tile.getTickCount());
+            beeChecksums[tile.getIndex()] = tile.beeChecksum();
+            population += tile.getPopulation();
+            for (int c = 0; c < HIVES; c++) storedFood[c] += tile.getHives().get(c).getStoredFood();
+            for (int f = 0; f < FOOD; f++) {
+                if (tile.ownsFood(f)) foodQuantities[f] = tile.getFoodSources().get(f).getQuantity();
+            }
+        }
+
+        assertEquals(colony.getPopulation(), population);
+        assertEquals(colony.checksum(), ColonySimulation.checksum(TICKS, beeChecksums, foodQuantities, storedFood));
+    }
+
+    private static List<Hive> hives() {
+        return ColonySimulation.spreadHives(HIVES, WIDTH, HEIGHT, 40);
+    }
+
+    private static void run(Tile[] tiles, InMemoryExchange exchange) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tiles.length);
+        try {
+            Future<?>[] runs = new Future<?>[tiles.length];
+            for (Tile tile : tiles) {
+                runs[tile.getIndex()] = executor.submit(() -> {
+                    TileExchange endpoint = exchange.endpoint(tile.getIndex());
+                    for (int t = 0; t < TICKS; t++) tile.tick(endpoint);
+                    return null;
+                });
+            }
+            for (Future<?> run : runs) {
+                try {
+                    run.get();
+                } catch (ExecutionException e) {
+                    exchange.barrier.reset();
+                    throw e;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Every tile posts one buffer for each tile, then all of them collect
+    // what was posted to them; two barriers keep the rounds apart.
+    private static final class InMemoryExchange {
+        private final ByteBuffer[][] posted;
+        private final CyclicBarrier barrier;
+
+        InMemoryExchange(int tiles) {
+            posted = new ByteBuffer[tiles][tiles];
+            barrier = new CyclicBarrier(tiles);
+        }
+
+        TileExchange endpoint(int from) {
+            return outgoing -> {
+                for (int to = 0; to < outgoing.length; to++) {
+                    ByteBuffer copy = ByteBuffer.allocate(outgoing[to].remaining());
+                    copy.put(outgoing[to].duplicate()).flip();
+                    posted[from][to] = copy;
+                }
+                await();
+                ByteBuffer[] incoming = new ByteBuffer[posted.length];
+                for (int other = 0; other < posted.length; other++) incoming[other] = posted[other][from];
+                await();
+                return incoming;
+            };
+        }
+
+        private void await() throws IOException {
+            try {
+                barrier.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while exchanging borders", e);
+            } catch (BrokenBarrierException e) {
+                throw new IOException("Another tile failed", e);
+            }
+        }
+    }
+}
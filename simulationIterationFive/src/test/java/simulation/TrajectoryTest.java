@@ -0,0 +1,90 @@
+package simulation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TrajectoryTest {
+    private static final int TICKS = 700;
+    private static final int KEYFRAME_INTERVAL = 100;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replayAndSeekReturnTheRecordedFrames() throws IOException {
+        Path path = directory.resolve("run.traj");
+        List<Long> expected = record(path);
+
+        try (TrajectoryReader reader = new TrajectoryReader(path)) {
+            assertEquals(1, reader.getFirstTick());
+            assertEquals(TICKS, reader.getLastTick());
+
+            for (long tick = reader.getFirstTick(); tick <= reader.getLastTick(); tick++) {
+                assertEquals(expected.get((int) tick - 1), hash(reader.read(tick)), "replay of tick " + tick);
+            }
+
+            List<Long> ticks = new ArrayList<>();
+            for (long tick = 1; tick <= TICKS; tick += 7) ticks.add(tick);
+            Collections.shuffle(ticks, new Random(5));
+            for (long tick : ticks) {
+                assertEquals(expected.get((int) tick - 1), hash(reader.read(tick)), "seek to tick " + tick);
+            }
+        }
+    }
+
+    @Test
+    void ticksOutsideTheRecordingAreRejected() throws IOException {
+        Path path = directory.resolve("run.traj");
+        record(path);
+
+        try (TrajectoryReader reader = new TrajectoryReader(path)) {
+            assertThrows(IllegalArgumentException.class, () -> reader.read(0));
+            assertThrows(IllegalArgumentException.class, () -> reader.read(TICKS + 1));
+        }
+    }
+
+    private static List<Long> record(Path path) throws IOException {
+        SimulationEngine engine = new SimulationEngine(1000, 500, new Hive(500, 250, 100), 9L);
+        engine.setFoodSources(10);
+        engine.setPopulation(800);
+
+        List<Long> expected = new ArrayList<>();
+        try (TrajectoryRecorder recorder = new TrajectoryRecorder(path, KEYFRAME_INTERVAL)) {
+            engine.addListener(recorder);
+            engine.addListener(new SimulationListener() {
+                @Override
+                public void ticked(SimulationEngine engine) {
+                    expected.add(hash(engine.getAgents()));
+                }
+            });
+            engine.run(TICKS);
+        }
+        return expected;
+    }
+
+    private static long hash(AgentPopulation bees) {
+        long hash = bees.size();
+        for (int i = 0; i < bees.size(); i++) {
+            hash = 31 * (31 * (31 * (31 * hash + bees.x[i]) + bees.y[i]) + bees.state[i]) + bees.carriedFood[i];
+        }
+        return hash;
+    }
+
+    private static long hash(TrajectoryFrame frame) {
+        long hash = frame.getCount();
+        for (int i = 0; i < frame.getCount(); i++) {
+            hash = 31 * (31 * (31 * (31 * hash + frame.x[i]) + frame.y[i]) + frame.state[i]) + frame.carriedFood[i];
+        }
+        return hash;
+    }
+}
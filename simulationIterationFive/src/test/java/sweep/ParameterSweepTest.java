@@ -0,0 +1,73 @@
+package sweep;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParameterSweepTest {
+    @Test
+    void tinySweepWritesOneRowPerRun() throws IOException, InterruptedException, ExecutionException {
+        ParameterSweep sweep = new ParameterSweep(new String[] {
+            "--ticks", "10", "--population", "5", "--speed", "2,3", "--repeats", "2", "--seed", "40"
+        });
+        List<SweepRun> runs = sweep.buildRuns();
+        assertEquals(4, runs.size());
+
+        StringWriter out = new StringWriter();
+        sweep.execute(runs, 2, out);
+        String[] lines = out.toString().split(System.lineSeparator());
+        assertEquals(SweepRun.HEADER, lines[0]);
+        assertEquals(5, lines.length);
+
+        // Rows arrive as runs finish, so order them by run number first.
+        List<String[]> rows = Arrays.stream(lines, 1, lines.length)
+                .map(line -> line.split(","))
+                .sorted(Comparator.comparingInt(row -> Integer.parseInt(row[0])))
+                .collect(Collectors.toList());
+        int columns = SweepRun.HEADER.split(",").length;
+        String[][] expected = {
+            {"0", "0", "40", "2.0"},
+            {"1", "1", "41", "2.0"},
+            {"2", "0", "40", "3.0"},
+            {"3", "1", "41", "3.0"},
+        };
+        for (int run = 0; run < expected.length; run++) {
+            String[] row = rows.get(run);
+            assertEquals(columns, row.length);
+            assertArrayEquals(expected[run], Arrays.copyOf(row, 4));
+            assertEquals("5", row[10]);
+            assertEquals("10", row[12]);
+        }
+    }
+
+    @Test
+    void unknownOptionsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ParameterSweep(new String[] {"--sped", "2"}));
+        assertThrows(IllegalArgumentException.class, () -> new ParameterSweep(new String[] {"speed", "2"}));
+        assertThrows(IllegalArgumentException.class, () -> new ParameterSweep(new String[] {"--ticks"}));
+    }
+
+    @Test
+    void malformedValuesAreRejected() {
+        for (String[] args : new String[][] {
+            {"--speed", "fast"},
+            {"--population", "5,many"},
+            {"--ticks", "1.5"},
+            {"--ticks", "-1"},
+            {"--repeats", "0"},
+        }) {
+            ParameterSweep sweep = new ParameterSweep(args);
+            assertThrows(IllegalArgumentException.class, sweep::buildRuns, String.join(" ", args));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package visualisation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeSeriesBufferTest {
+    private static final int CAPACITY = 64;
+
+    @Test
+    void viewFallsBackToACoarserLevelOnceSamplesAreEvicted() {
+        TimeSeriesBuffer buffer = filled(1000);
+
+        // Level 0 still holds the newest samples, so a recent range reads them raw.
+        List<double[]> recent = view(buffer, 936, 999, 1000);
+        assertEquals(64, recent.size());
+        assertEquals(936, recent.get(0)[0]);
+
+        // The whole range is only still covered by buckets of 64 samples.
+        List<double[]> all = view(buffer, 0, 999, 1000);
+        assertEquals(16, all.size());
+        for (int k = 0; k < all.size(); k++) {
+            assertEquals(64 * k, all.get(k)[0]);
+        }
+    }
+
+    @Test
+    void pendingBucketsFollowInAscendingOrder() {
+        TimeSeriesBuffer buffer = filled(1003);
+
+        List<double[]> points = view(buffer, 0, 1002, 1000);
+        assertEquals(17, points.size());
+        assertEquals(960, points.get(15)[0]);
+        assertEquals(1000, points.get(16)[0]);
+        for (int k = 1; k < points.size(); k++) {
+            assertTrue(points.get(k)[0] > points.get(k - 1)[0], "point " + k + " is out of order");
+        }
+    }
+
+    @Test
+    void bucketsKeepMinMaxAndLast() {
+        TimeSeriesBuffer buffer = filled(200);
+
+        List<double[]> buckets = view(buffer, 0, 199, 100);
+        assertEquals(25, buckets.size());
+        for (int k = 0; k < buckets.size(); k++) {
+            assertBucket(buckets.get(k), 8 * k, 8 * k + 7);
+        }
+
+        List<double[]> coarse = view(buffer, 0, 199, 5);
+        assertEquals(4, coarse.size());
+        assertBucket(coarse.get(0), 0, 63);
+        assertBucket(coarse.get(3), 192, 199);
+    }
+
+    @Test
+    void clearForgetsEverySample() {
+        TimeSeriesBuffer buffer = filled(1000);
+        buffer.clear();
+
+        assertTrue(buffer.isEmpty());
+        assertEquals(0, buffer.getSampleCount());
+        assertTrue(Double.isNaN(buffer.getLastX()));
+        assertEquals(0, view(buffer, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, 1000).size());
+
+        buffer.add(5, 1);
+        buffer.add(6, 2);
+        List<double[]> points = view(buffer, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, 1000);
+        assertEquals(2, points.size());
+        assertEquals(5, points.get(0)[0]);
+        assertEquals(2, buffer.getLastY());
+    }
+
+    // Every bucket of eight dips to -5 and peaks at 20; otherwise y follows x.
+    private static TimeSeriesBuffer filled(int samples) {
+        TimeSeriesBuffer buffer = new TimeSeriesBuffer(CAPACITY);
+        for (int x = 0; x < samples; x++) {
+            buffer.add(x, x % 8 == 3 ? -5 : x % 8 == 5 ? 20 : x);
+        }
+        return buffer;
+    }
+
+    private static void assertBucket(double[] point, double x, double last) {
+        assertEquals(x, point[0]);
+        assertEquals(-5, point[1]);
+        assertEquals(Math.max(20, last), point[2]);
+        assertEquals(last, point[3]);
+    }
+
+    private static List<double[]> view(TimeSeriesBuffer buffer, double fromX, double toX, int maxPoints) {
+        List<double[]> points = new ArrayList<>();
+        int emitted = buffer.view(fromX, toX, maxPoints, (x, min, max, last) -> points.add(new double[] {x, min, max, last}));
+        assertEquals(points.size(), emitted);
+        return points;
+    }
+}
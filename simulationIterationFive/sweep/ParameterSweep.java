@@ -0,0 +1,219 @@
+package sweep;
+
+import metrics.Counter;
+import metrics.JmxExporter;
+import metrics.MetricsRegistry;
+import metrics.PrometheusServer;
+import simulation.AgentParameters;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+
+public class ParameterSweep {
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: java -cp bee-simulation.jar sweep.ParameterSweep [options]",
+            "Grid options take a comma separated list; every combination is run.",
+            "  --speed 3.0                  --collection-time 60",
+            "  --deposit-time 60            --resting-time 100",
+            "  --search-timeout 500         --rejuvenation-chance 0.3",
+            "  --avoid-radius 30            --population 100",
+            "  --food 10",
+            "Run options:",
+            "  --ticks 36000                --repeats 1",
+            "  --seed 1                     --threads <cores>",
+            "  --width 1000                 --height 500",
+            "  --out <file>                 (default: standard output)",
+            "  --metrics-port <port>        serve Prometheus metrics on localhost");
+    private static final Set<String> OPTIONS = Set.of(
+            "speed", "collection-time", "deposit-time", "resting-time", "search-timeout", "rejuvenation-chance",
+            "avoid-radius", "population", "food", "ticks", "repeats", "seed", "threads", "width", "height", "out",
+            "metrics-port");
+    private static final Counter RUNS_FINISHED = MetricsRegistry.DEFAULT.counter(
+            "bee_sweep_runs_finished_total", "Sweep runs that have finished");
+
+    private final Map<String, String> options = new HashMap<>();
+
+    ParameterSweep(String[] args) {
+        for (int i = 0; i < args.length; i += 2) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --option value but got: " + args[i]);
+            }
+            String name = args[i].substring(2);
+            if (!OPTIONS.contains(name)) {
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+            options.put(name, args[i + 1]);
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 1 && (args[0].equals("--help") || args[0].equals("-h"))) {
+            System.out.println(USAGE);
+            return;
+        }
+
+        List<SweepRun> runs;
+        ParameterSweep sweep;
+        PrometheusServer metrics;
+        try {
+            sweep = new ParameterSweep(args);
+            runs = sweep.buildRuns();
+            metrics = sweep.startMetrics(runs.size());
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+            return;
+        }
+
+        int threads = sweep.integer("threads", Runtime.getRuntime().availableProcessors());
+        String out = sweep.options.get("out");
+        try (Writer writer = out == null
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                : Files.newBufferedWriter(Paths.get(out), StandardCharsets.UTF_8)) {
+            sweep.execute(runs, threads, writer);
+        } catch (ExecutionException e) {
+            System.err.println("Sweep failed: " + e.getCause());
+            System.exit(1);
+        } finally {
+            if (metrics != null) metrics.close();
+        }
+    }
+
+    private PrometheusServer startMetrics(int runCount) throws IOException {
+        String port = options.get("metrics-port");
+        if (port == null) return null;
+
+        MetricsRegistry.DEFAULT.gauge("bee_sweep_runs", "Runs in this sweep", () -> runCount);
+        JmxExporter.register(MetricsRegistry.DEFAULT);
+        PrometheusServer server = PrometheusServer.start(MetricsRegistry.DEFAULT, parseInt("metrics-port", port));
+        System.err.printf("Serving metrics on http://localhost:%d%s%n", server.getPort(), PrometheusServer.PATH);
+        return server;
+    }
+
+    void execute(List<SweepRun> runs, int threads, Writer writer)
+            throws IOException, InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            CompletionService<String> completion = new ExecutorCompletionService<>(executor);
+            for (SweepRun run : runs) {
+                completion.submit(run);
+            }
+
+            writer.write(SweepRun.HEADER);
+            writer.write(System.lineSeparator());
+            for (int finished = 1; finished <= runs.size(); finished++) {
+                writer.write(completion.take().get());
+                writer.write(System.lineSeparator());
+                writer.flush();
+                RUNS_FINISHED.increment();
+                System.err.printf("\r%d/%d runs", finished, runs.size());
+            }
+            System.err.println();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    List<SweepRun> buildRuns() {
+        AgentParameters defaults = AgentParameters.DEFAULTS;
+        List<AgentParameters> grid = List.of(defaults);
+        grid = expand(grid, decimals("speed", defaults.getSpeed()), AgentParameters::withSpeed);
+        grid = expand(grid, integers("collection-time", defaults.getCollectionTime()), AgentParameters::withCollectionTime);
+        grid = expand(grid, integers("deposit-time", defaults.getDepositTime()), AgentParameters::withDepositTime);
+        grid = expand(grid, integers("resting-time", defaults.getRestingTime()), AgentParameters::withRestingTime);
+        grid = expand(grid, integers("search-timeout", defaults.getSearchTimeout()), AgentParameters::withSearchTimeout);
+        grid = expand(grid, decimals("rejuvenation-chance", defaults.getRejuvenationChance()), AgentParameters::withRejuvenationChance);
+        grid = expand(grid, integers("avoid-radius", defaults.getAvoidRadius()), AgentParameters::withAvoidRadius);
+
+        List<Integer> populations = integers("population", 100);
+        List<Integer> foodCounts = integers("food", 10);
+        long ticks = integer("ticks", 36_000);
+        int repeats = integer("repeats", 1);
+        long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+        int width = integer("width", 1000);
+        int height = integer("height", 500);
+        if (ticks < 0 || repeats < 1) {
+            throw new IllegalArgumentException("--ticks must not be negative and --repeats must be at least 1");
+        }
+
+        List<SweepRun> runs = new ArrayList<>();
+        for (AgentParameters parameters : grid) {
+            for (int population : populations) {
+                for (int foodCount : foodCounts) {
+                    for (int repeat = 0; repeat < repeats; repeat++) {
+                        runs.add(new SweepRun(runs.size(), repeat, seed + repeat, parameters,
+                                population, foodCount, ticks, width, height));
+                    }
+                }
+            }
+        }
+        return runs;
+    }
+
+    private static <T> List<AgentParameters> expand(List<AgentParameters> grid, List<T> values,
+                                                    BiFunction<AgentParameters, T, AgentParameters> with) {
+        List<AgentParameters> expanded = new ArrayList<>(grid.size() * values.size());
+        for (AgentParameters parameters : grid) {
+            for (T value : values) expanded.add(with.apply(parameters, value));
+        }
+        return expanded;
+    }
+
+    private int integer(String name, int defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : parseInt(name, value);
+    }
+
+    private List<Integer> integers(String name, int defaultValue) {
+        List<Integer> values = new ArrayList<>();
+        String value = options.get(name);
+        if (value == null) {
+            values.add(defaultValue);
+        } else {
+            for (String part : value.split(",")) values.add(parseInt(name, part.trim()));
+        }
+        return values;
+    }
+
+    private List<Double> decimals(String name, double defaultValue) {
+        List<Double> values = new ArrayList<>();
+        String value = options.get(name);
+        if (value == null) {
+            values.add(defaultValue);
+        } else {
+            for (String part : value.split(",")) {
+                try {
+                    values.add(Double.parseDouble(part.trim()));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("--" + name + " expects numbers but got: " + part);
+                }
+            }
+        }
+        return values;
+    }
+
+    private static int parseInt(String name, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " expects whole numbers but got: " + value);
+        }
+    }
+}
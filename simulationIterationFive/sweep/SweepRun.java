@@ -0,0 +1,92 @@
+package sweep;
+
+import simulation.AgentParameters;
+import simulation.Hive;
+import simulation.MovementKernel;
+import simulation.SimulationEngine;
+import simulation.SimulationListener;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+
+public class SweepRun implements Callable<String> {
+    static final String HEADER = "run,repeat,seed,speed,collection_time,deposit_time,resting_time,search_timeout,"
+            + "rejuvenation_chance,avoid_radius,population,food_sources,ticks,food_collected,food_per_tick,"
+            + "sources_depleted,first_depletion_tick,last_depletion_tick,depletion_ticks,idle_fraction,elapsed_ms";
+
+    private final int run;
+    private final int repeat;
+    private final long seed;
+    private final AgentParameters parameters;
+    private final int population;
+    private final int foodCount;
+    private final long ticks;
+    private final int width, height;
+
+    public SweepRun(int run, int repeat, long seed, AgentParameters parameters,
+                    int population, int foodCount, long ticks, int width, int height) {
+        this.run = run;
+        this.repeat = repeat;
+        this.seed = seed;
+        this.parameters = parameters;
+        this.population = population;
+        this.foodCount = foodCount;
+        this.ticks = ticks;
+        this.width = width;
+        this.height = height;
+    }
+
+    @Override
+    public String call() {
+        long start = System.nanoTime();
+        Hive hive = new Hive(width / 2, height / 2, 100);
+        SimulationEngine engine = new SimulationEngine(width, height, hive, seed);
+        engine.setParameters(parameters);
+        engine.setMovementKernel(MovementKernel.create());
+        engine.setPopulation(population);
+        engine.setFoodSources(foodCount);
+
+        long[] depletionTicks = new long[engine.getFoodSources().size()];
+        Arrays.fill(depletionTicks, -1);
+        int[] depleted = new int[1];
+        engine.addListener(new SimulationListener() {
+            @Override
+            public void foodSourceDepleted(SimulationEngine engine, int sourceIndex) {
+                // Recorded as the tick count once the current tick has finished.
+                depletionTicks[sourceIndex] = engine.getTickCount() + 1;
+                depleted[0]++;
+            }
+        });
+        long restingAgentTicks = 0;
+
+        for (long t = 0; t < ticks; t++) {
+            engine.tick();
+            restingAgentTicks += engine.getRestingCount();
+        }
+
+        long first = -1, last = -1;
+        StringBuilder depletion = new StringBuilder();
+        for (long tick : depletionTicks) {
+            if (depletion.length() > 0) depletion.append(';');
+            depletion.append(tick);
+            if (tick != -1) {
+                if (first == -1 || tick < first) first = tick;
+                if (tick > last) last = tick;
+            }
+        }
+        if (depleted[0] < depletionTicks.length) last = -1;
+
+        int collected = hive.getStoredFood();
+        double idleFraction = population == 0 || ticks == 0 ? 0 : (double) restingAgentTicks / ((double) population * ticks);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        return run + "," + repeat + "," + seed + ","
+                + parameters.getSpeed() + "," + parameters.getCollectionTime() + "," + parameters.getDepositTime() + ","
+                + parameters.getRestingTime() + "," + parameters.getSearchTimeout() + ","
+                + parameters.getRejuvenationChance() + "," + parameters.getAvoidRadius() + ","
+                + population + "," + foodCount + "," + ticks + "," + collected + ","
+                + (ticks == 0 ? 0 : (double) collected / ticks) + ","
+                + depleted[0] + "," + first + "," + last + "," + depletion + ","
+                + idleFraction + "," + elapsedMillis;
+    }
+}
@@ -0,0 +1,59 @@
+package visualisation;
+
+import org.jfree.data.xy.XYSeries;
+
+public class DownsampledSeries {
+    private static final int CAPACITY = 1024;
+
+    private final XYSeries series;
+    private final TimeSeriesBuffer buffer = new TimeSeriesBuffer(CAPACITY);
+    private boolean dirty = false;
+
+    public DownsampledSeries(String key) {
+        series = new XYSeries(key, false, true);
+    }
+
+    public void add(double x, double y) {
+        buffer.add(x, y);
+        dirty = true;
+    }
+
+    public void clear() {
+        buffer.clear();
+        dirty = true;
+    }
+
+    public boolean isEmpty() {
+        return buffer.isEmpty();
+    }
+
+    public double getLastX() {
+        return buffer.getLastX();
+    }
+
+    public double getLastY() {
+        return buffer.getLastY();
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    public void refresh(double fromX, double toX, int maxPoints) {
+        series.setNotify(false);
+        series.clear();
+        buffer.view(fromX, toX, maxPoints, (x, min, max, last) -> {
+            if (min != max) {
+                series.add(x, min, false);
+                series.add(x, max, false);
+            }
+            series.add(x, last, false);
+        });
+        series.setNotify(true);
+        dirty = false;
+    }
+
+    public XYSeries getSeries() {
+        return series;
+    }
+}
@@ -0,0 +1,82 @@
+package visualisation;
+
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.ChartPanel;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.data.xy.XYSeriesCollection;
+
+import javax.swing.*;
+
+public class FoodCollectionGraph {
+    private static final int MAX_POINTS = 1000;
+
+    private DownsampledSeries foodSeries;
+    private XYSeriesCollection dataset;
+    private JFreeChart chart;
+    private ChartPanel chartPanel;
+    private int lastFoodCount = 0;
+    private boolean rangeChanged = false;
+
+    public FoodCollectionGraph() {
+        foodSeries = new DownsampledSeries("Food Collected");
+        dataset = new XYSeriesCollection(foodSeries.getSeries());
+
+        chart = ChartFactory.createXYLineChart(
+            "Bee Food Collection Over Time",
+            "Time (Seconds)",
+            "Food Collected",
+            dataset,
+            PlotOrientation.VERTICAL,
+            true,
+            true,
+            false
+        );
+
+        chartPanel = new ChartPanel(chart);
+        foodSeries.add(0, 0);
+
+        ValueAxis domainAxis = chart.getXYPlot().getDomainAxis();
+        domainAxis.addChangeListener(e -> rangeChanged |= !domainAxis.isAutoRange());
+        RefreshTimer.whileShowing(chartPanel, this::refresh);
+    }
+
+    public void updateGraph(int timeElapsed, int totalFood) {
+        int foodThisSecond = totalFood - lastFoodCount;
+        lastFoodCount = totalFood;
+
+        foodSeries.add(timeElapsed, foodThisSecond);
+    }
+
+    public void resetGraph() {
+        foodSeries.clear();
+        lastFoodCount = 0;
+        foodSeries.add(0, 0);
+    }
+
+    private void refresh() {
+        if (!foodSeries.isDirty() && !rangeChanged) return;
+
+        ValueAxis domainAxis = chart.getXYPlot().getDomainAxis();
+        double fromX = domainAxis.isAutoRange() ? Double.NEGATIVE_INFINITY : domainAxis.getLowerBound();
+        double toX = domainAxis.isAutoRange() ? Double.POSITIVE_INFINITY : domainAxis.getUpperBound();
+
+        GraphUpdateEvent event = new GraphUpdateEvent();
+        event.begin();
+        chart.setNotify(false);
+        foodSeries.refresh(fromX, toX, MAX_POINTS);
+        rangeChanged = false;
+        chart.setNotify(true);
+        if (event.shouldCommit()) {
+            event.graph = "Food Collection";
+            event.series = 1;
+            event.points = foodSeries.getSeries().getItemCount();
+            event.commit();
+        }
+    }
+
+    public JPanel getChartPanel() {
+        return chartPanel;
+    }
+}
@@ -3,8 +3,8 @@ package visualisation;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.ValueAxis;
 import org.jfree.chart.plot.PlotOrientation;
-import org.jfree.data.xy.XYSeries;
 import org.jfree.data.xy.XYSeriesCollection;
 import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
 
@@ -15,11 +15,16 @@ import java.util.Map;
 import java.awt.Color;
 
 public class FoodDepletionGraph {
+    private static final int MAX_POINTS = 1000;
+    public static final int MAX_SERIES = 20;
+
     private JFreeChart chart;
     private XYSeriesCollection dataset;
     private JPanel chartPanel;
-    private Map<Integer, XYSeries> foodSeriesMap; 
+    private Map<Integer, DownsampledSeries> foodSeriesMap; 
+    private int timeElapsed;
     private XYLineAndShapeRenderer renderer;
+    private boolean rangeChanged = false;
 
     public FoodDepletionGraph() {
         dataset = new XYSeriesCollection();
@@ -37,6 +42,10 @@ public class FoodDepletionGraph {
         chart.getXYPlot().setRenderer(renderer);
         
         chartPanel = new ChartPanel(chart);
+
+        ValueAxis domainAxis = chart.getXYPlot().getDomainAxis();
+        domainAxis.addChangeListener(e -> rangeChanged |= !domainAxis.isAutoRange());
+        RefreshTimer.whileShowing(chartPanel, this::refresh);
     }
 
     public void initializeFoodSources(int foodSourceCount, List<Integer> initialQuantities, List<Color> foodColors) {
@@ -44,11 +53,11 @@ public class FoodDepletionGraph {
         foodSeriesMap.clear();
         timeElapsed = 0;
 
-        for (int i = 0; i < foodSourceCount; i++) {
-            XYSeries series = new XYSeries("FS" + (i + 1));
+        for (int i = 0; i < Math.min(foodSourceCount, MAX_SERIES); i++) {
+            DownsampledSeries series = new DownsampledSeries("FS" + (i + 1));
             series.add(0, initialQuantities.get(i));
             foodSeriesMap.put(i, series);
-            dataset.addSeries(series);
+            dataset.addSeries(series.getSeries());
 
             renderer.setSeriesPaint(i, foodColors.get(i));
 
@@ -58,11 +67,11 @@ public class FoodDepletionGraph {
     }
 
 
-    public void updateGraph(List<Integer> currentQuantities) {
-        timeElapsed++;
+    public void updateGraph(int timeElapsed, List<Integer> currentQuantities) {
+        this.timeElapsed = timeElapsed;
 
-        for (int i = 0; i < currentQuantities.size(); i++) {
-            XYSeries series = foodSeriesMap.get(i);
+        for (int i = 0; i < Math.min(currentQuantities.size(), MAX_SERIES); i++) {
+            DownsampledSeries series = foodSeriesMap.get(i);
             if (series != null) {
                 series.add(timeElapsed, currentQuantities.get(i));
             }
@@ -70,13 +79,42 @@ public class FoodDepletionGraph {
     }
 
     public void resetGraph() {
-        for (XYSeries series : foodSeriesMap.values()) {
+        for (DownsampledSeries series : foodSeriesMap.values()) {
             series.clear();
             series.add(0, 50); 
         }
         timeElapsed = 0;
     }
 
+    private void refresh() {
+        boolean dirty = rangeChanged;
+        for (DownsampledSeries series : foodSeriesMap.values()) {
+            dirty |= series.isDirty();
+        }
+        if (!dirty) return;
+
+        ValueAxis domainAxis = chart.getXYPlot().getDomainAxis();
+        double fromX = domainAxis.isAutoRange() ? Double.NEGATIVE_INFINITY : domainAxis.getLowerBound();
+        double toX = domainAxis.isAutoRange() ? Double.POSITIVE_INFINITY : domainAxis.getUpperBound();
+
+        GraphUpdateEvent event = new GraphUpdateEvent();
+        event.begin();
+        chart.setNotify(false);
+        int points = 0;
+        for (DownsampledSeries series : foodSeriesMap.values()) {
+            series.refresh(fromX, toX, MAX_POINTS);
+            points += series.getSeries().getItemCount();
+        }
+        rangeChanged = false;
+        chart.setNotify(true);
+        if (event.shouldCommit()) {
+            event.graph = "Food Depletion";
+            event.series = foodSeriesMap.size();
+            event.points = points;
+            event.commit();
+        }
+    }
+
     public JPanel getChartPanel() {
         return chartPanel;
     }
@@ -0,0 +1,26 @@
+package visualisation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("simulation.GraphUpdate")
+@Label("Graph Update")
+@Category({"Bee Simulation", "Rendering"})
+@Description("Rebuilding the visible points of a chart from its buffered series")
+@Enabled(false)
+@StackTrace(false)
+final class GraphUpdateEvent extends jdk.jfr.Event {
+    @Label("Graph")
+    String graph;
+
+    @Label("Series")
+    int series;
+
+    @Label("Points")
+    @Description("Points plotted after downsampling")
+    int points;
+}
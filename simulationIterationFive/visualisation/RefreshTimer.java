@@ -0,0 +1,25 @@
+package visualisation;
+
+import javax.swing.*;
+import java.awt.event.HierarchyEvent;
+
+// Refreshes a chart only while its panel is showing, so a graph whose
+// window is closed, or that was never opened, costs nothing.
+final class RefreshTimer {
+    private static final int REFRESH_MILLIS = 500;
+
+    private RefreshTimer() {
+    }
+
+    static void whileShowing(JComponent panel, Runnable refresh) {
+        Timer timer = new Timer(REFRESH_MILLIS, e -> refresh.run());
+        panel.addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) == 0) return;
+            if (panel.isShowing()) {
+                timer.start();
+            } else {
+                timer.stop();
+            }
+        });
+    }
+}
@@ -0,0 +1,172 @@
+package visualisation;
+
+public class TimeSeriesBuffer {
+    private static final int LEVELS = 6;
+    private static final int FACTOR = 8;
+    private static final int INITIAL_CAPACITY = 64;
+
+    public interface Sink {
+        void point(double x, double min, double max, double last);
+    }
+
+    private final int capacity;
+    private final Level[] levels = new Level[LEVELS];
+    private long sampleCount = 0;
+
+    public TimeSeriesBuffer(int capacity) {
+        this.capacity = capacity;
+        for (int level = 0; level < LEVELS; level++) {
+            levels[level] = new Level(Math.min(capacity, INITIAL_CAPACITY));
+        }
+    }
+
+    public void add(double x, double y) {
+        sampleCount++;
+        push(0, x, y, y, y);
+    }
+
+    public void clear() {
+        sampleCount = 0;
+        for (Level level : levels) level.clear();
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    public boolean isEmpty() {
+        return sampleCount == 0;
+    }
+
+    public double getLastX() {
+        return lastOf(0, true);
+    }
+
+    public double getLastY() {
+        return lastOf(0, false);
+    }
+
+    public int view(double fromX, double toX, int maxPoints, Sink sink) {
+        int chosen = LEVELS - 1;
+        for (int level = 0; level < LEVELS; level++) {
+            Level l = levels[level];
+            boolean covers = !l.evicted || (l.size > 0 && l.x[l.index(0)] <= fromX);
+            if (covers && l.countBetween(fromX, toX) + level <= maxPoints) {
+                chosen = level;
+                break;
+            }
+        }
+
+        int emitted = 0;
+        Level l = levels[chosen];
+        for (int k = 0; k < l.size; k++) {
+            int i = l.index(k);
+            if (l.x[i] < fromX || l.x[i] > toX) continue;
+            sink.point(l.x[i], l.min[i], l.max[i], l.last[i]);
+            emitted++;
+        }
+        for (int level = chosen; level >= 1; level--) {
+            Level pending = levels[level];
+            if (pending.bucketCount > 0 && pending.bucketX >= fromX && pending.bucketX <= toX) {
+                sink.point(pending.bucketX, pending.bucketMin, pending.bucketMax, pending.bucketLast);
+                emitted++;
+            }
+        }
+        return emitted;
+    }
+
+    private void push(int level, double x, double min, double max, double last) {
+        levels[level].append(x, min, max, last, capacity);
+
+        if (level + 1 < LEVELS) {
+            Level up = levels[level + 1];
+            if (up.bucketCount == 0) {
+                up.bucketX = x;
+                up.bucketMin = min;
+                up.bucketMax = max;
+            } else {
+                up.bucketMin = Math.min(up.bucketMin, min);
+                up.bucketMax = Math.max(up.bucketMax, max);
+            }
+            up.bucketLast = last;
+
+            if (++up.bucketCount == FACTOR) {
+                up.bucketCount = 0;
+                push(level + 1, up.bucketX, up.bucketMin, up.bucketMax, up.bucketLast);
+            }
+        }
+    }
+
+    private double lastOf(int level, boolean wantX) {
+        Level l = levels[level];
+        if (l.size == 0) return Double.NaN;
+        int i = l.index(l.size - 1);
+        return wantX ? l.x[i] : l.last[i];
+    }
+
+    private static final class Level {
+        double[] x, min, max, last;
+        int start = 0, size = 0;
+        boolean evicted = false;
+
+        double bucketX, bucketMin, bucketMax, bucketLast;
+        int bucketCount = 0;
+
+        Level(int initialCapacity) {
+            x = new double[initialCapacity];
+            min = new double[initialCapacity];
+            max = new double[initialCapacity];
+            last = new double[initialCapacity];
+        }
+
+        int index(int k) {
+            return (start + k) % x.length;
+        }
+
+        void append(double px, double pmin, double pmax, double plast, int capacity) {
+            if (size == x.length && x.length < capacity) {
+                grow(Math.min(capacity, x.length * 2));
+            }
+            if (size == x.length) {
+                start = (start + 1) % x.length;
+                size--;
+                evicted = true;
+            }
+            int i = index(size++);
+            x[i] = px;
+            min[i] = pmin;
+            max[i] = pmax;
+            last[i] = plast;
+        }
+
+        int countBetween(double fromX, double toX) {
+            int count = 0;
+            for (int k = 0; k < size; k++) {
+                double value = x[index(k)];
+                if (value >= fromX && value <= toX) count++;
+            }
+            return count;
+        }
+
+        void clear() {
+            start = 0;
+            size = 0;
+            evicted = false;
+            bucketCount = 0;
+        }
+
+        private void grow(int newCapacity) {
+            double[][] arrays = {x, min, max, last};
+            for (int a = 0; a < arrays.length; a++) {
+                double[] grown = new double[newCapacity];
+                for (int k = 0; k < size; k++) grown[k] = arrays[a][index(k)];
+                arrays[a] = grown;
+            }
+            x = arrays[0];
+            min = arrays[1];
+            max = arrays[2];
+            last = arrays[3];
+            start = 0;
+        }
+    }
+}
@@ -3,22 +3,25 @@ package visualisation;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.ValueAxis;
 import org.jfree.chart.plot.PlotOrientation;
-import org.jfree.data.xy.XYSeries;
 import org.jfree.data.xy.XYSeriesCollection;
 
 import javax.swing.*;
 
 public class TotalFoodGraph {
+    private static final int MAX_POINTS = 1000;
+
     private XYSeriesCollection dataset;
-    private XYSeries totalFoodSeries;
+    private DownsampledSeries totalFoodSeries;
     private JFreeChart chart;
     private ChartPanel chartPanel;
+    private boolean rangeChanged = false;
 
     public TotalFoodGraph() {
         dataset = new XYSeriesCollection();
-        totalFoodSeries = new XYSeries("Total Food");
-        dataset.addSeries(totalFoodSeries);
+        totalFoodSeries = new DownsampledSeries("Total Food");
+        dataset.addSeries(totalFoodSeries.getSeries());
         
         totalFoodSeries.add(0, 0);
         
@@ -34,22 +37,26 @@ public class TotalFoodGraph {
         );
 
         chartPanel = new ChartPanel(chart);
+
+        ValueAxis domainAxis = chart.getXYPlot().getDomainAxis();
+        domainAxis.addChangeListener(e -> rangeChanged |= !domainAxis.isAutoRange());
+        RefreshTimer.whileShowing(chartPanel, this::refresh);
     }
 
 
     public void updateGraph(int timeElapsed, int totalFood) {
-        if (totalFoodSeries.getItemCount() > 0) {
-            int lastIndex = totalFoodSeries.getItemCount() - 1;
-            Number lastTime = totalFoodSeries.getX(lastIndex);
-            Number lastFoodAmount = totalFoodSeries.getY(lastIndex);
-
-            if (lastTime.intValue() == timeElapsed) {
-                if (lastTime.intValue() == 0 && lastFoodAmount.intValue() == 0 && totalFood > 0) {
-                    totalFoodSeries.updateByIndex(lastIndex, totalFood); 
+        if (!totalFoodSeries.isEmpty()) {
+            int lastTime = (int) totalFoodSeries.getLastX();
+            int lastFoodAmount = (int) totalFoodSeries.getLastY();
+
+            if (lastTime == timeElapsed) {
+                if (lastTime == 0 && lastFoodAmount == 0 && totalFood > 0) {
+                    totalFoodSeries.clear();
+                    totalFoodSeries.add(0, totalFood);
                 }
                 return;
             }
-            if (lastFoodAmount.intValue() == totalFood) {
+            if (lastFoodAmount == totalFood) {
                 totalFoodSeries.add(timeElapsed, lastFoodAmount);
                 return;
             }
@@ -65,6 +72,28 @@ public class TotalFoodGraph {
     }
 
 
+    private void refresh() {
+        if (!totalFoodSeries.isDirty() && !rangeChanged) return;
+
+        ValueAxis domainAxis = chart.getXYPlot().getDomainAxis();
+        double fromX = domainAxis.isAutoRange() ? Double.NEGATIVE_INFINITY : domainAxis.getLowerBound();
+        double toX = domainAxis.isAutoRange() ? Double.POSITIVE_INFINITY : domainAxis.getUpperBound();
+
+        GraphUpdateEvent event = new GraphUpdateEvent();
+        event.begin();
+        chart.setNotify(false);
+        totalFoodSeries.refresh(fromX, toX, MAX_POINTS);
+        rangeChanged = false;
+        chart.setNotify(true);
+        if (event.shouldCommit()) {
+            event.graph = "Total Food";
+            event.series = 1;
+            event.points = totalFoodSeries.getSeries().getItemCount();
+            event.commit();
+        }
+    }
+
+
     public JPanel getChartPanel() {
         return chartPanel;
     }